@@ -0,0 +1,98 @@
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+import javax.swing.SwingUtilities;
+
+public class ActiveRenderCanvas extends Canvas {
+
+    private static final int BUFFER_COUNT = 3;
+
+    private final Game game;
+    private BufferStrategy strategy;
+
+    public ActiveRenderCanvas(Game game) {
+        this.game = game;
+        setPreferredSize(GameSettings.WINDOW_SIZE);
+        setBackground(Color.BLACK);
+        setIgnoreRepaint(true);
+        setFocusable(false);
+
+        MouseAdapter forwarder = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                forward(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                forward(e);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                forward(e);
+            }
+        };
+        addMouseListener(forwarder);
+    }
+
+    private void forward(MouseEvent e) {
+        game.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, game));
+    }
+
+    public boolean render() {
+        if (!isDisplayable() || getWidth() <= 0 || getHeight() <= 0) {
+            return false;
+        }
+        if (strategy == null) {
+            createStrategy();
+        }
+
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    if (!game.isPresentingDirtyRegions()) {
+                        g2d.setColor(Color.BLACK);
+                        g2d.fillRect(0, 0, getWidth(), getHeight());
+                    }
+                    game.render(g2d, getWidth(), getHeight());
+                } finally {
+                    g2d.dispose();
+                }
+            } while (invalidateIf(strategy.contentsRestored()));
+            strategy.show();
+        } while (invalidateIf(strategy.contentsLost()));
+
+        Toolkit.getDefaultToolkit().sync();
+        return true;
+    }
+
+    public int getRetainedFrames() {
+        if (strategy == null || strategy.getCapabilities().isPageFlipping()) {
+            return 0;
+        }
+        return BUFFER_COUNT - 1;
+    }
+
+    private boolean invalidateIf(boolean contentsChanged) {
+        if (contentsChanged) {
+            game.invalidateFrame();
+        }
+        return contentsChanged;
+    }
+
+    private void createStrategy() {
+        BufferCapabilities pageFlipping = new BufferCapabilities(
+                new ImageCapabilities(true),
+                new ImageCapabilities(true),
+                BufferCapabilities.FlipContents.UNDEFINED);
+        try {
+            createBufferStrategy(BUFFER_COUNT, pageFlipping);
+        } catch (AWTException e) {
+            createBufferStrategy(BUFFER_COUNT);
+        }
+        strategy = getBufferStrategy();
+    }
+}
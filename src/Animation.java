@@ -0,0 +1,30 @@
+public enum Animation {
+    IDLE(GameSettings.IDLE_SPRITE_PATH, GameSettings.IDLE_FRAMES, GameSettings.IDLE_FRAME_WIDTH, GameSettings.IDLE_FRAME_HEIGHT, 1),
+    WALK(GameSettings.WALK_SPRITE_PATH, GameSettings.WALK_FRAMES, GameSettings.WALK_FRAME_WIDTH, GameSettings.WALK_FRAME_HEIGHT, 1),
+    ATTACK(GameSettings.ATTACK_SPRITE_PATH, GameSettings.ATTACK_FRAMES, GameSettings.ATTACK_FRAME_WIDTH, GameSettings.ATTACK_FRAME_HEIGHT, 1),
+    RASENGAN(GameSettings.RASENGAN_SPRITE_PATH, GameSettings.RASENGAN_FRAMES, GameSettings.RASENGAN_FRAME_WIDTH, GameSettings.RASENGAN_FRAME_HEIGHT, 0),
+    HIT(GameSettings.HIT_SPRITE_PATH, GameSettings.HIT_FRAMES, GameSettings.HIT_FRAME_WIDTH, GameSettings.HIT_FRAME_HEIGHT, 0),
+    JUMP(GameSettings.JUMP_SPRITE_PATH, GameSettings.JUMP_FRAMES, GameSettings.JUMP_FRAME_WIDTH, GameSettings.JUMP_FRAME_HEIGHT, 1),
+    START(GameSettings.START_SPRITE_PATH, GameSettings.START_FRAMES, GameSettings.START_FRAME_WIDTH, GameSettings.START_FRAME_HEIGHT, 1),
+    FOG(GameSettings.FOG_SPRITE_PATH, GameSettings.FOG_FRAMES, GameSettings.FOG_FRAME_WIDTH, GameSettings.FOG_FRAME_HEIGHT, 1);
+
+    private final String path;
+    private final int frames;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int spacing;
+
+    Animation(String path, int frames, int frameWidth, int frameHeight, int spacing) {
+        this.path = path;
+        this.frames = frames;
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.spacing = spacing;
+    }
+
+    public String getPath() { return path; }
+    public int getFrames() { return frames; }
+    public int getFrameWidth() { return frameWidth; }
+    public int getFrameHeight() { return frameHeight; }
+    public int getSpacing() { return spacing; }
+}
@@ -1,308 +1,351 @@
 import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import javax.imageio.ImageIO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AnimationManager {
     
-    private BufferedImage[] idleFrames;
-    private BufferedImage[] walkFrames;
-    private BufferedImage[] attackFrames;
-    private BufferedImage[] rasenganFrames;
-    private BufferedImage[] hitFrames;
-    private BufferedImage[] jumpFrames;
-    private BufferedImage[] startFrames;
-    private BufferedImage[] fogFrames;
-    
-    private int idleFrame = 0;
-    private int walkFrame = 0;
-    private int attackFrame = 0;
-    private int rasenganFrame = 0;
-    private int hitFrame = 0;
-    private int jumpFrame = 0;
-    private int startFrame = 0;
-    private int fogFrame = 0;
+    private static final ScaledFrames[] NO_SCALED_FRAMES = new ScaledFrames[0];
+    
+    private final Map<Animation, BufferedImage[]> frames = new ConcurrentHashMap<>();
+    private final Map<Animation, ScaledFrames[]> scaledFrames = new ConcurrentHashMap<>();
+    private final Map<Animation, HitMask[][]> hitMasks = new ConcurrentHashMap<>();
+    private final GraphicsConfiguration configuration;
+    private final List<String> acquiredKeys = new ArrayList<>();
     
-    private long lastIdleFrameTime = 0;
-    private long lastWalkFrameTime = 0;
-    private long lastAttackFrameTime = 0;
-    private long lastRasenganFrameTime = 0;
-    private long lastHitFrameTime = 0;
-    private long lastJumpFrameTime = 0;
-    private long lastStartFrameTime = 0;
+    private int fogFrame = 0;
     private long lastFogFrameTime = 0;
     
     public AnimationManager() {
-        loadAnimations();
-    }
-    
-    private void loadAnimations() {
-        try {
-            BufferedImage idleSheet = ImageIO.read(new File(GameSettings.IDLE_SPRITE_PATH));
-            idleSheet = makeTransparent(idleSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            idleFrames = loadFrames(idleSheet, GameSettings.IDLE_FRAMES, GameSettings.IDLE_FRAME_WIDTH, GameSettings.IDLE_FRAME_HEIGHT, 1);
-
-            BufferedImage walkSheet = ImageIO.read(new File(GameSettings.WALK_SPRITE_PATH));
-            walkSheet = makeTransparent(walkSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            walkFrames = loadFrames(walkSheet, GameSettings.WALK_FRAMES, GameSettings.WALK_FRAME_WIDTH, GameSettings.WALK_FRAME_HEIGHT, 1);
-
-            BufferedImage attackSheet = ImageIO.read(new File(GameSettings.ATTACK_SPRITE_PATH));
-            attackSheet = makeTransparent(attackSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            attackFrames = loadFrames(attackSheet, GameSettings.ATTACK_FRAMES, GameSettings.ATTACK_FRAME_WIDTH, GameSettings.ATTACK_FRAME_HEIGHT, 1);
-
-            BufferedImage rasenganSheet = ImageIO.read(new File(GameSettings.RASENGAN_SPRITE_PATH));
-            rasenganSheet = makeTransparent(rasenganSheet, new Color(128, 128, 128), GameSettings.RASENGAN_COLOR_TOLERANCE);
-            rasenganSheet = makeTransparent(rasenganSheet, new Color(140, 140, 140), GameSettings.RASENGAN_COLOR_TOLERANCE);
-            rasenganSheet = makeTransparent(rasenganSheet, new Color(120, 120, 120), GameSettings.RASENGAN_COLOR_TOLERANCE);
-            rasenganFrames = loadFrames(rasenganSheet, GameSettings.RASENGAN_FRAMES, GameSettings.RASENGAN_FRAME_WIDTH, GameSettings.RASENGAN_FRAME_HEIGHT, 0);
-
-            BufferedImage hitSheet = ImageIO.read(new File(GameSettings.HIT_SPRITE_PATH));
-            hitSheet = makeTransparent(hitSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            hitFrames = loadFrames(hitSheet, GameSettings.HIT_FRAMES, GameSettings.HIT_FRAME_WIDTH, GameSettings.HIT_FRAME_HEIGHT, 0);
-
-            BufferedImage jumpSheet = ImageIO.read(new File(GameSettings.JUMP_SPRITE_PATH));
-            jumpSheet = makeTransparent(jumpSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            jumpFrames = loadFrames(jumpSheet, GameSettings.JUMP_FRAMES, GameSettings.JUMP_FRAME_WIDTH, GameSettings.JUMP_FRAME_HEIGHT, 1);
-
-            BufferedImage startSheet = ImageIO.read(new File("assets/players/naruto_start.png"));
-            startSheet = makeTransparent(startSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            int totalWidth = startSheet.getWidth();
-            int frameWidth = (totalWidth - 2) / 3;
-            int frameHeight = startSheet.getHeight();
-            startFrames = loadFrames(startSheet, 3, frameWidth, frameHeight, 1);
-            
-            BufferedImage fogSheet = ImageIO.read(new File("assets/players/naruto_fog.png"));
-            fogSheet = makeTransparent(fogSheet, GameSettings.TRANSPARENT_COLOR, GameSettings.COLOR_TOLERANCE);
-            int fogTotalWidth = fogSheet.getWidth();
-            int fogFrameWidth = (fogTotalWidth - 1) / 2;
-            int fogFrameHeight = fogSheet.getHeight();
-            fogFrames = loadFrames(fogSheet, 2, fogFrameWidth, fogFrameHeight, 1);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
+        configuration = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+    
+    public CompletableFuture<Void> load(Animation... animations) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[animations.length];
+        for (int i = 0; i < animations.length; i++) {
+            Animation animation = animations[i];
+            futures[i] = AssetLoader.submit(() -> {
+                loadAnimation(animation);
+                getScaledFrames(animation, getDefaultScale(animation));
+                buildHitMasks(animation, getDefaultScale(animation));
+                return null;
+            }).exceptionally(e -> {
+                e.printStackTrace();
+                return null;
+            });
         }
+        return CompletableFuture.allOf(futures);
     }
     
-    private BufferedImage[] loadFrames(BufferedImage sheet, int cols, int frameW, int frameH, int spacing) {
-        BufferedImage[] frames = new BufferedImage[cols];
-        for (int x = 0; x < cols; x++) {
-            int sx = x * (frameW + spacing);
-            frames[x] = sheet.getSubimage(sx, 0, frameW, frameH);
-        }
-        return frames;
+    public CompletableFuture<TextureAtlas> loadAtlas(String name, Animation... animations) {
+        return load(animations).thenCompose(v -> AssetLoader.submit(() -> buildAtlas(name, animations)));
     }
     
-    private BufferedImage makeTransparent(BufferedImage img, Color color, int tolerance) {
-        BufferedImage out = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        int rMatch = color.getRed(), gMatch = color.getGreen(), bMatch = color.getBlue();
-
-        for (int y = 0; y < img.getHeight(); y++) {
-            for (int x = 0; x < img.getWidth(); x++) {
-                int pixel = img.getRGB(x, y);
-                int r = (pixel >> 16) & 0xFF, g = (pixel >> 8) & 0xFF, b = pixel & 0xFF;
-
-                if (Math.abs(r - rMatch) <= tolerance &&
-                        Math.abs(g - gMatch) <= tolerance &&
-                        Math.abs(b - bMatch) <= tolerance) {
-                    out.setRGB(x, y, 0x00000000);
-                } else {
-                    out.setRGB(x, y, pixel);
+    private TextureAtlas buildAtlas(String name, Animation[] animations) throws Exception {
+        StringBuilder key = new StringBuilder("atlas:").append(name);
+        for (Animation animation : animations) {
+            key.append('|').append(getFramesKey(animation)).append("#scale=").append(getDefaultScale(animation));
+        }
+        String atlasKey = key.toString();
+        
+        TextureAtlas atlas = AssetRegistry.acquire(atlasKey, () -> {
+            BufferedImage[][] right = new BufferedImage[Animation.values().length][];
+            BufferedImage[][] left = new BufferedImage[Animation.values().length][];
+            for (Animation animation : animations) {
+                ScaledFrames scaled = getScaledFrames(animation, getDefaultScale(animation));
+                if (scaled != null) {
+                    right[animation.ordinal()] = scaled.right;
+                    left[animation.ordinal()] = scaled.left;
                 }
             }
-        }
-        return out;
-    }
-    
-    public void updateIdleAnimation(long now) {
-        if (now - lastIdleFrameTime >= GameSettings.ANIMATION_IDLE_DELAY) {
-            if (idleFrames != null && idleFrames.length > 0) {
-                idleFrame = (idleFrame + 1) % idleFrames.length;
+            
+            long start = System.nanoTime();
+            TextureAtlas built = TextureAtlas.build(right, left, configuration);
+            LoadTimings.record(LoadTimings.Stage.PACK, "atlas:" + name, start);
+            return built;
+        });
+        synchronized (this) {
+            acquiredKeys.add(atlasKey);
+            for (Animation animation : animations) {
+                for (ScaledFrames scaled : scaledFrames.getOrDefault(animation, NO_SCALED_FRAMES)) {
+                    String scaledKey = getFramesKey(animation) + "#scale=" + scaled.scale;
+                    if (acquiredKeys.remove(scaledKey)) {
+                        AssetRegistry.release(scaledKey);
+                    }
+                }
+                scaledFrames.remove(animation);
             }
-            lastIdleFrameTime = now;
         }
+        return atlas;
     }
     
-    public void updateWalkAnimation(long now) {
-        if (now - lastWalkFrameTime >= GameSettings.ANIMATION_WALK_DELAY) {
-            if (walkFrames != null && walkFrames.length > 0) {
-                walkFrame = (walkFrame + 1) % walkFrames.length;
-            }
-            lastWalkFrameTime = now;
+    private static double getDefaultScale(Animation animation) {
+        if (animation == Animation.RASENGAN) {
+            return getRasenganScale();
         }
-    }
-    
-    public void updateAttackAnimation(long now) {
-        if (now - lastAttackFrameTime >= GameSettings.ANIMATION_ATTACK_DELAY) {
-            attackFrame++;
-            lastAttackFrameTime = now;
+        if (animation == Animation.FOG) {
+            return 2.0;
         }
-    }
-    
-    public void updateRasenganAnimation(long now) {
-        if (now - lastRasenganFrameTime >= GameSettings.ANIMATION_RASENGAN_DELAY) {
-            if (rasenganFrames != null && rasenganFrames.length > 0) {
-                rasenganFrame = (rasenganFrame + 1) % rasenganFrames.length;
+        return GameSettings.PLAYER_SCALE;
+    }
+    
+    private void loadAnimation(Animation animation) throws Exception {
+        Color[] keyColors = getKeyColors(animation);
+        int tolerance = getKeyTolerance(animation);
+        String key = getFramesKey(animation);
+        
+        BufferedImage[] animationFrames = AssetRegistry.acquire(key, () -> {
+            String path = animation.getPath();
+            BufferedImage[] cached = SpriteDiskCache.load(path, key);
+            if (cached != null) {
+                return cached;
             }
-            lastRasenganFrameTime = now;
-        }
-    }
-    
-    public void updateHitAnimation(long now) {
-        if (now - lastHitFrameTime >= GameSettings.ANIMATION_HIT_DELAY) {
-            hitFrame++;
-            lastHitFrameTime = now;
+            
+            BufferedImage sheet = AssetRegistry.readImage(path);
+            
+            long start = System.nanoTime();
+            sheet = new ChromaKey(keyColors, tolerance).apply(sheet);
+            LoadTimings.record(LoadTimings.Stage.CHROMA_KEY, path, start);
+            
+            start = System.nanoTime();
+            BufferedImage[] sliced = loadFrames(sheet, animation);
+            LoadTimings.record(LoadTimings.Stage.SLICE, path, start);
+            
+            SpriteDiskCache.store(path, key, sliced);
+            return sliced;
+        });
+        synchronized (this) {
+            acquiredKeys.add(key);
         }
+        frames.put(animation, animationFrames);
     }
     
-    public void updateJumpAnimation(long now) {
-        if (now - lastJumpFrameTime >= GameSettings.ANIMATION_JUMP_DELAY) {
-            if (jumpFrames != null && jumpFrames.length > 0) {
-                jumpFrame = (jumpFrame + 1) % jumpFrames.length;
-            }
-            lastJumpFrameTime = now;
+    private static Color[] getKeyColors(Animation animation) {
+        if (animation == Animation.RASENGAN) {
+            return new Color[] {new Color(128, 128, 128), new Color(140, 140, 140), new Color(120, 120, 120)};
         }
+        return new Color[] {GameSettings.TRANSPARENT_COLOR};
     }
     
-    public void resetAttackAnimation() {
-        attackFrame = 0;
-    }
-    
-    public void resetRasenganAnimation() {
-        rasenganFrame = 0;
-    }
-    
-    public void resetHitAnimation() {
-        hitFrame = 0;
+    private static int getKeyTolerance(Animation animation) {
+        return animation == Animation.RASENGAN ? GameSettings.RASENGAN_COLOR_TOLERANCE : GameSettings.COLOR_TOLERANCE;
     }
     
-    public void resetJumpAnimation() {
-        jumpFrame = 0;
-    }
-    
-    public BufferedImage getCurrentIdleFrame() {
-        if (idleFrames == null || idleFrames.length == 0) return null;
-        return idleFrames[idleFrame % idleFrames.length];
-    }
-    
-    public BufferedImage getCurrentWalkFrame() {
-        if (walkFrames == null || walkFrames.length == 0) return null;
-        return walkFrames[walkFrame % walkFrames.length];
-    }
-    
-    public BufferedImage getCurrentAttackFrame() {
-        if (attackFrames == null || attackFrames.length == 0) return null;
-        return attackFrames[attackFrame % attackFrames.length];
-    }
-    
-    public BufferedImage getCurrentRasenganFrame() {
-        if (rasenganFrames == null || rasenganFrames.length == 0) return null;
-        return rasenganFrames[rasenganFrame % rasenganFrames.length];
-    }
-    
-    public BufferedImage getCurrentHitFrame() {
-        if (hitFrames == null || hitFrames.length == 0) return null;
-        return hitFrames[hitFrame % hitFrames.length];
-    }
-    
-    public BufferedImage getCurrentJumpFrame() {
-        if (jumpFrames == null || jumpFrames.length == 0) return null;
-        return jumpFrames[jumpFrame % jumpFrames.length];
-    }
-    
-    public BufferedImage[] getIdleFrames() {
-        return idleFrames;
-    }
-    
-    public BufferedImage[] getWalkFrames() {
-        return walkFrames;
+    private static String getFramesKey(Animation animation) {
+        StringBuilder key = new StringBuilder("frames:").append(animation.getPath()).append("#chroma=");
+        for (Color keyColor : getKeyColors(animation)) {
+            key.append(String.format("%06x,", keyColor.getRGB() & 0xFFFFFF));
+        }
+        key.append("tolerance=").append(getKeyTolerance(animation));
+        key.append("#cells=").append(animation.getFrames()).append('x').append(animation.getFrameWidth())
+                .append('x').append(animation.getFrameHeight()).append('+').append(animation.getSpacing());
+        return key.toString();
     }
     
-    public BufferedImage[] getAttackFrames() {
-        return attackFrames;
+    private BufferedImage[] loadFrames(BufferedImage sheet, Animation animation) {
+        return loadFrames(sheet, animation.getFrames(), animation.getFrameWidth(), animation.getFrameHeight(), animation.getSpacing());
     }
     
-    public BufferedImage[] getRasenganFrames() {
-        return rasenganFrames;
+    private BufferedImage[] loadFrames(BufferedImage sheet, int cols, int frameW, int frameH, int spacing) {
+        BufferedImage[] frames = new BufferedImage[cols];
+        for (int x = 0; x < cols; x++) {
+            int sx = x * (frameW + spacing);
+            frames[x] = sheet.getSubimage(sx, 0, frameW, frameH);
+        }
+        return frames;
     }
     
-    public BufferedImage[] getHitFrames() {
-        return hitFrames;
+    private ScaledFrames getScaledFrames(Animation animation, double scale) {
+        for (ScaledFrames scaled : scaledFrames.getOrDefault(animation, NO_SCALED_FRAMES)) {
+            if (scaled.scale == scale) {
+                return scaled;
+            }
+        }
+        return buildScaledFrames(animation, scale);
     }
     
-    public BufferedImage[] getJumpFrames() {
-        return jumpFrames;
+    private ScaledFrames buildScaledFrames(Animation animation, double scale) {
+        BufferedImage[] source = frames.get(animation);
+        if (source == null) {
+            return null;
+        }
+        
+        String key = getFramesKey(animation) + "#scale=" + scale;
+        BufferedImage[][] facings;
+        try {
+            facings = AssetRegistry.acquire(key, () -> {
+                String path = animation.getPath();
+                BufferedImage[][] built = new BufferedImage[2][source.length];
+                BufferedImage[] cached = SpriteDiskCache.load(path, key);
+                if (cached != null && cached.length == source.length * 2) {
+                    for (int i = 0; i < source.length; i++) {
+                        built[0][i] = toCompatible(cached[i]);
+                        built[1][i] = toCompatible(cached[source.length + i]);
+                    }
+                    return built;
+                }
+                
+                long start = System.nanoTime();
+                for (int i = 0; i < source.length; i++) {
+                    built[0][i] = scaleFrame(source[i], scale, false);
+                    built[1][i] = scaleFrame(source[i], scale, true);
+                }
+                LoadTimings.record(LoadTimings.Stage.SCALE, path, start);
+                
+                BufferedImage[] flattened = Arrays.copyOf(built[0], source.length * 2);
+                System.arraycopy(built[1], 0, flattened, source.length, source.length);
+                SpriteDiskCache.store(path, key, flattened);
+                return built;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        
+        synchronized (this) {
+            acquiredKeys.add(key);
+            ScaledFrames[] existing = scaledFrames.getOrDefault(animation, NO_SCALED_FRAMES);
+            for (ScaledFrames scaled : existing) {
+                if (scaled.scale == scale) {
+                    return scaled;
+                }
+            }
+            ScaledFrames scaled = new ScaledFrames(scale, facings[0], facings[1]);
+            ScaledFrames[] updated = Arrays.copyOf(existing, existing.length + 1);
+            updated[existing.length] = scaled;
+            scaledFrames.put(animation, updated);
+            return scaled;
+        }
     }
     
-    public int getIdleFrame() {
-        return idleFrame;
+    private BufferedImage createCompatibleImage(int width, int height) {
+        return configuration != null
+                ? configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
     }
     
-    public int getWalkFrame() {
-        return walkFrame;
+    private boolean isCompatible(BufferedImage image) {
+        return configuration != null
+                ? image.getColorModel().equals(configuration.getColorModel(Transparency.TRANSLUCENT))
+                : image.getType() == BufferedImage.TYPE_INT_ARGB_PRE;
     }
     
-    public int getAttackFrame() {
-        return attackFrame;
+    private BufferedImage toCompatible(BufferedImage image) {
+        if (isCompatible(image)) {
+            return image;
+        }
+        BufferedImage out = createCompatibleImage(image.getWidth(), image.getHeight());
+        Graphics2D g2d = out.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return out;
     }
     
-    public int getRasenganFrame() {
-        return rasenganFrame;
+    private BufferedImage scaleFrame(BufferedImage frame, double scale, boolean mirrored) {
+        int width = Math.max(1, (int) (frame.getWidth() * scale));
+        int height = Math.max(1, (int) (frame.getHeight() * scale));
+        BufferedImage out = createCompatibleImage(width, height);
+        
+        Graphics2D g2d = out.createGraphics();
+        if (mirrored) {
+            g2d.drawImage(frame, width, 0, -width, height, null);
+        } else {
+            g2d.drawImage(frame, 0, 0, width, height, null);
+        }
+        g2d.dispose();
+        return out;
     }
     
-    public int getHitFrame() {
-        return hitFrame;
+    private void buildHitMasks(Animation animation, double scale) {
+        BufferedImage[] animationFrames = frames.get(animation);
+        if (animationFrames == null || hitMasks.containsKey(animation)) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        HitMask[] right = new HitMask[animationFrames.length];
+        HitMask[] left = new HitMask[animationFrames.length];
+        for (int i = 0; i < animationFrames.length; i++) {
+            right[i] = HitMask.fromAlpha(animationFrames[i], scale, false);
+            left[i] = HitMask.fromAlpha(animationFrames[i], scale, true);
+        }
+        hitMasks.put(animation, new HitMask[][] {left, right});
+        LoadTimings.record(LoadTimings.Stage.HIT_MASK, animation.getPath(), start);
     }
     
-    public int getJumpFrame() {
-        return jumpFrame;
+    public HitMask getHitMask(Animation animation, int index, boolean facingRight) {
+        HitMask[] facing = getHitMasks(animation, facingRight);
+        if (facing == null || facing.length == 0) return null;
+        return facing[index % facing.length];
     }
     
-    public boolean isAttackAnimationComplete() {
-        return attackFrame >= attackFrames.length;
+    public HitMask[] getHitMasks(Animation animation, boolean facingRight) {
+        HitMask[][] masks = hitMasks.get(animation);
+        return masks != null ? masks[facingRight ? 1 : 0] : null;
     }
     
-    public boolean isHitAnimationComplete() {
-        return hitFrame >= hitFrames.length;
+    public BufferedImage getScaledFrame(Animation animation, int index, double scale, boolean facingRight) {
+        ScaledFrames scaled = getScaledFrames(animation, scale);
+        if (scaled == null) return null;
+        BufferedImage[] animationFrames = facingRight ? scaled.right : scaled.left;
+        if (animationFrames.length == 0) return null;
+        return animationFrames[index % animationFrames.length];
     }
     
-    public void setAttackFrame(int frame) {
-        this.attackFrame = frame;
+    public synchronized void release() {
+        for (String key : acquiredKeys) {
+            AssetRegistry.release(key);
+        }
+        acquiredKeys.clear();
     }
     
-    public void updateStartAnimation(long now) {
-        if (now - lastStartFrameTime >= 100) {
-            if (startFrames != null && startFrames.length > 0) {
-                startFrame = (startFrame + 1) % startFrames.length;
-            }
-            lastStartFrameTime = now;
-        }
+    public static double getRasenganScale() {
+        return (double) GameSettings.RASENGAN_SIZE / GameSettings.RASENGAN_FRAME_WIDTH;
     }
     
-    public BufferedImage getCurrentStartFrame() {
-        if (startFrames == null || startFrames.length == 0) return null;
-        return startFrames[startFrame % startFrames.length];
+    public BufferedImage[] getFrames(Animation animation) {
+        return frames.get(animation);
     }
     
-    public BufferedImage[] getStartFrames() {
-        return startFrames;
+    public BufferedImage getFrame(Animation animation, int index) {
+        BufferedImage[] animationFrames = frames.get(animation);
+        if (animationFrames == null || animationFrames.length == 0) return null;
+        return animationFrames[index % animationFrames.length];
     }
     
     public void updateFogAnimation(long now) {
-        if (now - lastFogFrameTime >= 150) {
-            if (fogFrames != null && fogFrames.length > 0) {
-                fogFrame = (fogFrame + 1) % fogFrames.length;
-            }
+        if (now - lastFogFrameTime >= GameSettings.ANIMATION_FOG_DELAY) {
+            fogFrame = (fogFrame + 1) % Animation.FOG.getFrames();
             lastFogFrameTime = now;
         }
     }
     
     public BufferedImage getCurrentFogFrame() {
-        if (fogFrames == null || fogFrames.length == 0) return null;
-        return fogFrames[fogFrame % fogFrames.length];
+        return getFrame(Animation.FOG, fogFrame);
     }
     
-    public void resetStartAnimation() {
-        startFrame = 0;
-        lastStartFrameTime = 0;
+    public int getFogFrame() {
+        return fogFrame;
+    }
+    
+    private static class ScaledFrames {
+        private final double scale;
+        private final BufferedImage[] right;
+        private final BufferedImage[] left;
+        
+        private ScaledFrames(double scale, BufferedImage[] right, BufferedImage[] left) {
+            this.scale = scale;
+            this.right = right;
+            this.left = left;
+        }
     }
 }
@@ -0,0 +1,174 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+import javax.imageio.ImageIO;
+
+public class AssetRegistry {
+
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+    private static final Map<String, Integer> contentHashes = new ConcurrentHashMap<>();
+
+    public static <T> T acquire(String key, Loader<T> loader) throws Exception {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.computeIfAbsent(key, Entry::new);
+            entry.references++;
+        }
+
+        try {
+            @SuppressWarnings("unchecked")
+            T asset = (T) entry.get(loader);
+            return asset;
+        } catch (Exception e) {
+            release(key);
+            throw e;
+        }
+    }
+
+    public static BufferedImage acquireImage(String path) throws Exception {
+        return acquire("image:" + path, () -> readImage(path));
+    }
+
+    public static BufferedImage readImage(String path) throws IOException {
+        long start = System.nanoTime();
+        byte[] bytes = Files.readAllBytes(Paths.get(path));
+        LoadTimings.record(LoadTimings.Stage.IO, path, start);
+
+        start = System.nanoTime();
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+        LoadTimings.record(LoadTimings.Stage.DECODE, path, start);
+        if (image == null) {
+            throw new IOException("Unsupported image: " + path);
+        }
+        return image;
+    }
+
+    public static int getContentHash(String path) throws IOException {
+        Integer hash = contentHashes.get(path);
+        if (hash == null) {
+            CRC32C crc = new CRC32C();
+            try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                crc.update((int) channel.size());
+            }
+            hash = (int) crc.getValue();
+            contentHashes.put(path, hash);
+        }
+        return hash;
+    }
+
+    public static SoundData acquireSound(String path) throws Exception {
+        return acquire("sound:" + path, () -> SoundData.load(path));
+    }
+
+    public static void release(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && --entry.references <= 0) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    public static void releaseImage(String path) {
+        release("image:" + path);
+    }
+
+    public static void releaseSound(String path) {
+        release("sound:" + path);
+    }
+
+    public static int getReferences(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null ? entry.references : 0;
+        }
+    }
+
+    public static long getTotalBytes() {
+        long total = 0;
+        for (Entry entry : snapshot()) {
+            total += entry.bytes;
+        }
+        return total;
+    }
+
+    public static String report() {
+        List<Entry> snapshot = snapshot();
+        snapshot.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+
+        StringBuilder sb = new StringBuilder();
+        long total = 0;
+        for (Entry entry : snapshot) {
+            sb.append(String.format("%10d bytes  %2d refs  %s%n", entry.bytes, entry.references, entry.key));
+            total += entry.bytes;
+        }
+        sb.append(String.format("%10d bytes in %d assets%n", total, snapshot.size()));
+        return sb.toString();
+    }
+
+    private static List<Entry> snapshot() {
+        synchronized (entries) {
+            return new ArrayList<>(entries.values());
+        }
+    }
+
+    private static long sizeOf(Object asset, Map<DataBuffer, Boolean> seen) {
+        if (asset instanceof BufferedImage) {
+            DataBuffer buffer = ((BufferedImage) asset).getRaster().getDataBuffer();
+            if (seen.put(buffer, Boolean.TRUE) != null) {
+                return 0;
+            }
+            return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+        }
+        if (asset instanceof Object[]) {
+            long total = 0;
+            for (Object element : (Object[]) asset) {
+                total += sizeOf(element, seen);
+            }
+            return total;
+        }
+        if (asset instanceof TextureAtlas) {
+            return sizeOf(((TextureAtlas) asset).getImage(), seen);
+        }
+        if (asset instanceof SoundData) {
+            return ((SoundData) asset).getData().length;
+        }
+        return 0;
+    }
+
+    private static class Entry {
+        private final String key;
+        private int references = 0;
+        private Object asset;
+        private volatile long bytes = 0;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        private synchronized Object get(Loader<?> loader) throws Exception {
+            if (asset == null) {
+                asset = loader.load();
+                bytes = sizeOf(asset, new IdentityHashMap<>());
+            }
+            return asset;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.sound.sampled.*;
+
+public class AudioMixer implements SoundEvents {
+
+    private static final int PLAY = 0;
+    private static final int LOOP = 1;
+    private static final int STOP = 2;
+    private static final int PAUSE = 3;
+    private static final int RESUME = 4;
+    private static final int OP_BITS = 3;
+    private static final int GAIN_SHIFT = 12;
+    private static final int UNITY_GAIN = 1 << GAIN_SHIFT;
+
+    public static final AudioFormat FORMAT = new AudioFormat(GameSettings.AUDIO_SAMPLE_RATE, 16, 2, true, false);
+
+    private final AtomicReferenceArray<short[]> samples = new AtomicReferenceArray<>(SoundCue.values().length);
+    private final int[] gains = new int[SoundCue.values().length];
+    private final int[] priorities = new int[SoundCue.values().length];
+
+    private final AtomicReferenceArray<MusicStream> music = new AtomicReferenceArray<>(SoundCue.values().length);
+    private final int[] musicGains = new int[SoundCue.values().length];
+    private final int[] musicLevels = new int[SoundCue.values().length];
+    private final int[] musicTargets = new int[SoundCue.values().length];
+    private final boolean[] musicActive = new boolean[SoundCue.values().length];
+    private final int fadeStep = Math.max(1, (int) ((long) UNITY_GAIN * GameSettings.MIXER_BLOCK_FRAMES * 1000
+            / (GameSettings.AUDIO_SAMPLE_RATE * GameSettings.MUSIC_CROSSFADE_MS)));
+
+    private final int queueMask;
+    private final int[] commands;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    private final short[][] voiceSamples;
+    private final int[] voiceCues;
+    private final int[] voicePositions;
+    private final int[] voiceGains;
+    private final int[] voicePriorities;
+    private final long[] voiceStarts;
+    private final boolean[] voiceLoops;
+    private long startCount = 0;
+
+    private final int[] mix = new int[GameSettings.MIXER_BLOCK_FRAMES * 2];
+    private final byte[] output = new byte[GameSettings.MIXER_BLOCK_FRAMES * 4];
+
+    private volatile boolean running = false;
+    private SourceDataLine line;
+    private Thread thread;
+    private Thread streamThread;
+
+    public AudioMixer() {
+        int queueSize = Integer.highestOneBit(Math.max(2, GameSettings.MIXER_QUEUE_SIZE) - 1) << 1;
+        queueMask = queueSize - 1;
+        commands = new int[queueSize];
+        sequences = new AtomicLongArray(queueSize);
+        for (int i = 0; i < queueSize; i++) {
+            sequences.set(i, i);
+        }
+
+        int voices = GameSettings.MIXER_VOICES;
+        voiceSamples = new short[voices][];
+        voiceCues = new int[voices];
+        voicePositions = new int[voices];
+        voiceGains = new int[voices];
+        voicePriorities = new int[voices];
+        voiceStarts = new long[voices];
+        voiceLoops = new boolean[voices];
+    }
+
+    public CompletableFuture<Void> load() {
+        SoundBank bank;
+        try {
+            bank = SoundBank.load(GameSettings.SOUND_BANK_PATH);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<String, List<SoundBank.Entry>> samplePaths = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (SoundBank.Entry entry : bank.getEntries()) {
+            if (entry.isStreamed()) {
+                loads.add(loadMusic(entry.getCue(), entry.getPath(), entry.getGain()));
+            } else {
+                samplePaths.computeIfAbsent(entry.getPath(), path -> new ArrayList<>()).add(entry);
+            }
+        }
+        samplePaths.forEach((path, entries) -> loads.add(load(path, entries)));
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    public CompletableFuture<Void> loadMusic(SoundCue cue, String path, float volume) {
+        return AssetLoader.submit(() -> {
+            try {
+                long start = System.nanoTime();
+                MusicStream stream = new MusicStream(path, FORMAT.getSampleRate());
+                stream.fill();
+                LoadTimings.record(LoadTimings.Stage.AUDIO_OPEN, path, start);
+                musicGains[cue.ordinal()] = (int) Math.round(UNITY_GAIN * Math.pow(10.0, volume / 20.0));
+                music.set(cue.ordinal(), stream);
+                startStreaming();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return null;
+        });
+    }
+
+    private synchronized void startStreaming() {
+        if (streamThread != null) {
+            return;
+        }
+        streamThread = new Thread(this::stream, "music-stream");
+        streamThread.setDaemon(true);
+        streamThread.start();
+    }
+
+    private void stream() {
+        while (!Thread.currentThread().isInterrupted()) {
+            for (int cue = 0; cue < music.length(); cue++) {
+                MusicStream stream = music.get(cue);
+                if (stream == null) {
+                    continue;
+                }
+                try {
+                    stream.fill();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    music.set(cue, null);
+                }
+            }
+            LockSupport.parkNanos(GameSettings.MUSIC_FILL_INTERVAL_NANOS);
+        }
+    }
+
+    private CompletableFuture<Void> load(String path, List<SoundBank.Entry> entries) {
+        return AssetLoader.submit(() -> {
+            loadSample(path, entries);
+            return null;
+        });
+    }
+
+    private void loadSample(String path, List<SoundBank.Entry> entries) {
+        try {
+            int sampleRate = Math.round(FORMAT.getSampleRate());
+            short[] pcm = SoundDiskCache.load(path, sampleRate, FORMAT.getChannels());
+            if (pcm == null) {
+                SoundData sound = AssetRegistry.acquireSound(path);
+                long start = System.nanoTime();
+                pcm = sound.toStereoPcm(FORMAT.getSampleRate());
+                LoadTimings.record(LoadTimings.Stage.AUDIO_OPEN, path, start);
+                AssetRegistry.releaseSound(path);
+                SoundDiskCache.store(path, sampleRate, FORMAT.getChannels(), pcm);
+            }
+            for (SoundBank.Entry entry : entries) {
+                int cue = entry.getCue().ordinal();
+                gains[cue] = (int) Math.round(UNITY_GAIN * Math.pow(10.0, entry.getGain() / 20.0));
+                priorities[cue] = entry.getPriority();
+                samples.set(cue, pcm);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, output.length * GameSettings.MIXER_BUFFER_BLOCKS);
+            line.start();
+        } catch (Exception e) {
+            e.printStackTrace();
+            line = null;
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    public void close() {
+        running = false;
+        synchronized (this) {
+            if (streamThread != null) {
+                streamThread.interrupt();
+                streamThread = null;
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        if (line != null) {
+            line.close();
+            line = null;
+        }
+        for (int cue = 0; cue < music.length(); cue++) {
+            MusicStream stream = music.getAndSet(cue, null);
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void play(SoundCue cue) {
+        enqueue(PLAY, cue);
+    }
+
+    @Override
+    public void loop(SoundCue cue) {
+        enqueue(LOOP, cue);
+    }
+
+    @Override
+    public void stop(SoundCue cue) {
+        enqueue(STOP, cue);
+    }
+
+    public void pause(SoundCue cue) {
+        enqueue(PAUSE, cue);
+    }
+
+    public void resume(SoundCue cue) {
+        enqueue(RESUME, cue);
+    }
+
+    private boolean enqueue(int op, SoundCue cue) {
+        int command = (cue.ordinal() << OP_BITS) | op;
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & queueMask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    commands[index] = command;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            drainCommands();
+            mixBlock(mix, GameSettings.MIXER_BLOCK_FRAMES);
+            for (int i = 0; i < mix.length; i++) {
+                int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                output[i * 2] = (byte) sample;
+                output[i * 2 + 1] = (byte) (sample >> 8);
+            }
+            line.write(output, 0, output.length);
+        }
+    }
+
+    void drainCommands() {
+        while (true) {
+            int index = (int) (head & queueMask);
+            if (sequences.get(index) != head + 1) {
+                return;
+            }
+            int command = commands[index];
+            sequences.lazySet(index, head + queueMask + 1);
+            head++;
+
+            int cue = command >>> OP_BITS;
+            if (music.get(cue) != null) {
+                musicCommand(cue, command & ((1 << OP_BITS) - 1));
+                continue;
+            }
+            switch (command & ((1 << OP_BITS) - 1)) {
+                case PLAY:
+                    startVoice(cue, false);
+                    break;
+                case LOOP:
+                    stopVoices(cue);
+                    startVoice(cue, true);
+                    break;
+                case STOP:
+                    stopVoices(cue);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void musicCommand(int cue, int op) {
+        switch (op) {
+            case PLAY:
+            case LOOP:
+                music.get(cue).requestRewind();
+                for (int other = 0; other < musicTargets.length; other++) {
+                    musicTargets[other] = 0;
+                }
+                musicLevels[cue] = 0;
+                musicTargets[cue] = UNITY_GAIN;
+                musicActive[cue] = true;
+                break;
+            case STOP:
+                musicTargets[cue] = 0;
+                break;
+            case PAUSE:
+                musicActive[cue] = false;
+                break;
+            case RESUME:
+                musicTargets[cue] = UNITY_GAIN;
+                musicActive[cue] = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void startVoice(int cue, boolean loop) {
+        short[] sample = samples.get(cue);
+        if (sample == null || sample.length == 0) {
+            return;
+        }
+        int priority = priorities[cue];
+        int voice = -1;
+        for (int i = 0; i < voiceSamples.length; i++) {
+            if (voiceSamples[i] == null) {
+                voice = i;
+                break;
+            }
+            if (voicePriorities[i] <= priority && (voice < 0 || voicePriorities[i] < voicePriorities[voice]
+                    || (voicePriorities[i] == voicePriorities[voice] && voiceStarts[i] < voiceStarts[voice]))) {
+                voice = i;
+            }
+        }
+        if (voice < 0) {
+            return;
+        }
+        voiceSamples[voice] = sample;
+        voiceCues[voice] = cue;
+        voicePositions[voice] = 0;
+        voiceGains[voice] = gains[cue];
+        voicePriorities[voice] = priority;
+        voiceStarts[voice] = startCount++;
+        voiceLoops[voice] = loop;
+    }
+
+    private void stopVoices(int cue) {
+        for (int i = 0; i < voiceSamples.length; i++) {
+            if (voiceSamples[i] != null && voiceCues[i] == cue) {
+                voiceSamples[i] = null;
+            }
+        }
+    }
+
+    void mixBlock(int[] out, int frames) {
+        int length = frames * 2;
+        for (int i = 0; i < length; i++) {
+            out[i] = 0;
+        }
+        for (int voice = 0; voice < voiceSamples.length; voice++) {
+            short[] sample = voiceSamples[voice];
+            if (sample == null) {
+                continue;
+            }
+            int gain = voiceGains[voice];
+            int position = voicePositions[voice];
+            int i = 0;
+            while (i < length) {
+                int count = Math.min(length - i, sample.length - position);
+                for (int n = 0; n < count; n++) {
+                    out[i + n] += (sample[position + n] * gain) >> GAIN_SHIFT;
+                }
+                i += count;
+                position += count;
+                if (position >= sample.length) {
+                    if (!voiceLoops[voice]) {
+                        sample = null;
+                        break;
+                    }
+                    position = 0;
+                }
+            }
+            voiceSamples[voice] = sample;
+            voicePositions[voice] = position;
+        }
+
+        for (int cue = 0; cue < musicActive.length; cue++) {
+            MusicStream stream = music.get(cue);
+            if (!musicActive[cue] || stream == null) {
+                continue;
+            }
+            int level = musicLevels[cue];
+            int target = musicTargets[cue];
+            int next = level < target ? Math.min(target, level + fadeStep) : Math.max(target, level - fadeStep);
+            int gain = musicGains[cue];
+            stream.mix(out, frames, (gain * level) >> GAIN_SHIFT, (gain * next) >> GAIN_SHIFT, GAIN_SHIFT);
+            musicLevels[cue] = next;
+            if (next == 0 && target == 0) {
+                musicActive[cue] = false;
+            }
+        }
+    }
+}
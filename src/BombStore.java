@@ -0,0 +1,530 @@
+import java.util.Arrays;
+import java.util.Random;
+
+public class BombStore {
+
+    private static final int DESTROYED = 1;
+    private static final int HIT = 1 << 1;
+    private static final int BEING_ATTACKED = 1 << 2;
+    private static final int HIT_STARTED = 1 << 3;
+    private static final int BLINKING = 1 << 4;
+    private static final int DEAD = 1 << 5;
+    private static final int DEATH_COMPLETE = 1 << 6;
+    private static final int KNOCKED_BACK = 1 << 7;
+    private static final int LAST_PLAYER_RIGHT = 1 << 8;
+    private static final int ALIVE = 1 << 9;
+
+    private static final byte MODE_FREE = 0;
+    private static final byte MODE_ACTIVE = 1;
+    private static final byte MODE_DEAD = 2;
+    private static final byte MODE_DESTROYED = 3;
+
+    private static final int CENTER_OFFSET = 100;
+    private static final int MAX_FRAME_WIDTH = (int) (Math.max(Animation.IDLE.getFrameWidth(),
+            Animation.HIT.getFrameWidth()) * GameSettings.PLAYER_SCALE);
+    private static final int MAX_FRAME_HEIGHT = (int) (Math.max(Animation.IDLE.getFrameHeight(),
+            Animation.HIT.getFrameHeight()) * GameSettings.PLAYER_SCALE);
+    private static final int OVERLAP_CACHE_BITS = 8;
+    private static final long ATTACK_RANGE_SQUARED = (long) GameSettings.ATTACK_RANGE * GameSettings.ATTACK_RANGE;
+
+    private final SoundEvents sounds;
+    private final Random random;
+    private final int maxHealth = GameSettings.BOMB_HEALTH;
+
+    private int capacity;
+    private int highWater = 0;
+    private int count = 0;
+    private int[] freeIds;
+    private int freeCount = 0;
+
+    private final SpatialHash grid;
+    private AnimationManager hitMasks;
+    private int[] candidates;
+    private final long[] overlapKeys = new long[1 << OVERLAP_CACHE_BITS];
+    private final int[] overlapPasses = new int[1 << OVERLAP_CACHE_BITS];
+    private final boolean[] overlapResults = new boolean[1 << OVERLAP_CACHE_BITS];
+    private int overlapPass = 0;
+    private int[] engaged;
+    private int[] engagedIndex;
+    private int engagedCount = 0;
+
+    private int[] flags;
+    private byte[] mode;
+    private int[] x;
+    private int[] y;
+    private int[] prevX;
+    private int[] prevY;
+    private int[] offsetX;
+    private int[] offsetY;
+    private int[] health;
+    private float[] smoothHealth;
+    private int[] idleFrame;
+    private int[] hitFrame;
+    private long[] lastIdleFrameTime;
+    private long[] lastHitFrameTime;
+    private long[] lastSpawn;
+    private long[] blinkStartTime;
+    private long[] lastDamageTime;
+
+    public BombStore(SoundEvents sounds, int initialCapacity) {
+        this(sounds, initialCapacity, new Random().nextLong());
+    }
+
+    public BombStore(SoundEvents sounds, int initialCapacity, long seed) {
+        this.sounds = sounds;
+        this.random = new Random(seed);
+        this.capacity = Math.max(1, initialCapacity);
+        freeIds = new int[capacity];
+        grid = new SpatialHash(GameSettings.WINDOW_SIZE, GameSettings.COLLISION_CELL_SIZE, capacity);
+        candidates = new int[capacity];
+        engaged = new int[capacity];
+        engagedIndex = new int[capacity];
+        Arrays.fill(engagedIndex, -1);
+        flags = new int[capacity];
+        mode = new byte[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+        prevX = new int[capacity];
+        prevY = new int[capacity];
+        offsetX = new int[capacity];
+        offsetY = new int[capacity];
+        health = new int[capacity];
+        smoothHealth = new float[capacity];
+        idleFrame = new int[capacity];
+        hitFrame = new int[capacity];
+        lastIdleFrameTime = new long[capacity];
+        lastHitFrameTime = new long[capacity];
+        lastSpawn = new long[capacity];
+        blinkStartTime = new long[capacity];
+        lastDamageTime = new long[capacity];
+    }
+
+    public int spawn(long now) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (highWater == capacity) {
+                grow();
+            }
+            id = highWater++;
+        }
+        count++;
+
+        flags[id] = ALIVE;
+        x[id] = GameSettings.BOMB_START_X;
+        y[id] = GameSettings.BOMB_START_Y;
+        idleFrame[id] = 0;
+        hitFrame[id] = 0;
+        lastIdleFrameTime[id] = 0;
+        lastHitFrameTime[id] = 0;
+        lastDamageTime[id] = 0;
+        respawn(id, now);
+        return id;
+    }
+
+    public void despawn(int id) {
+        if (!isAlive(id)) {
+            return;
+        }
+        flags[id] = 0;
+        mode[id] = MODE_FREE;
+        grid.remove(id);
+        freeIds[freeCount++] = id;
+        count--;
+    }
+
+    private void grow() {
+        int oldCapacity = capacity;
+        capacity *= 2;
+        freeIds = Arrays.copyOf(freeIds, capacity);
+        grid.ensureCapacity(capacity);
+        candidates = new int[capacity];
+        engaged = Arrays.copyOf(engaged, capacity);
+        engagedIndex = Arrays.copyOf(engagedIndex, capacity);
+        Arrays.fill(engagedIndex, oldCapacity, capacity, -1);
+        flags = Arrays.copyOf(flags, capacity);
+        mode = Arrays.copyOf(mode, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        offsetX = Arrays.copyOf(offsetX, capacity);
+        offsetY = Arrays.copyOf(offsetY, capacity);
+        health = Arrays.copyOf(health, capacity);
+        smoothHealth = Arrays.copyOf(smoothHealth, capacity);
+        idleFrame = Arrays.copyOf(idleFrame, capacity);
+        hitFrame = Arrays.copyOf(hitFrame, capacity);
+        lastIdleFrameTime = Arrays.copyOf(lastIdleFrameTime, capacity);
+        lastHitFrameTime = Arrays.copyOf(lastHitFrameTime, capacity);
+        lastSpawn = Arrays.copyOf(lastSpawn, capacity);
+        blinkStartTime = Arrays.copyOf(blinkStartTime, capacity);
+        lastDamageTime = Arrays.copyOf(lastDamageTime, capacity);
+    }
+
+    public void setHitMasks(AnimationManager hitMasks) {
+        this.hitMasks = hitMasks;
+    }
+
+    public void update(long now, Player player) {
+        classify();
+        updateRespawns(now);
+        updateCollisions(now, player);
+        updateSmoothHealth();
+        updateAnimations(now);
+        updateBlinking(now);
+    }
+
+    private void classify() {
+        for (int i = 0; i < highWater; i++) {
+            int f = flags[i];
+            if ((f & ALIVE) == 0) {
+                mode[i] = MODE_FREE;
+                continue;
+            }
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            if ((f & DEAD) != 0) {
+                mode[i] = MODE_DEAD;
+            } else if ((f & DESTROYED) != 0) {
+                mode[i] = MODE_DESTROYED;
+            } else {
+                mode[i] = MODE_ACTIVE;
+            }
+        }
+    }
+
+    private void updateRespawns(long now) {
+        for (int i = 0; i < highWater; i++) {
+            byte m = mode[i];
+            if (m == MODE_DEAD) {
+                if ((flags[i] & DEATH_COMPLETE) != 0 && now - lastSpawn[i] >= GameSettings.BOMB_SPAWN_DELAY) {
+                    respawn(i, now);
+                }
+            } else if (m == MODE_DESTROYED) {
+                if (now - lastSpawn[i] >= GameSettings.BOMB_SPAWN_DELAY) {
+                    respawn(i, now);
+                }
+            }
+        }
+    }
+
+    private void respawn(int i, long now) {
+        health[i] = maxHealth;
+        smoothHealth[i] = maxHealth;
+        x[i] = GameSettings.BOMB_START_X + random.nextInt(200);
+        y[i] = GameSettings.PLAYER_START_Y;
+        prevX[i] = x[i];
+        prevY[i] = y[i];
+        offsetY[i] = 0;
+        offsetX[i] = 0;
+        flags[i] = ALIVE | BLINKING | LAST_PLAYER_RIGHT;
+        blinkStartTime[i] = now;
+        lastSpawn[i] = now;
+        grid.update(i, x[i] + CENTER_OFFSET, y[i] + CENTER_OFFSET);
+    }
+
+    private void updateCollisions(long now, Player player) {
+        if (!(player.isAttacking() && player.isShowRasengan())) {
+            for (int n = 0; n < engagedCount; n++) {
+                int i = engaged[n];
+                if (mode[i] == MODE_ACTIVE) {
+                    int f = flags[i];
+                    if ((f & HIT) != 0 && (f & HIT_STARTED) == 0) {
+                        flags[i] = (f | HIT_STARTED) & ~BEING_ATTACKED;
+                    }
+                }
+            }
+            pruneEngaged();
+            return;
+        }
+
+        for (int n = 0; n < engagedCount; n++) {
+            int i = engaged[n];
+            if (mode[i] == MODE_ACTIVE) {
+                flags[i] &= ~BEING_ATTACKED;
+            }
+        }
+
+        int facingFlag = player.isFacingRight() ? LAST_PLAYER_RIGHT : 0;
+        HitMask attack = hitMasks != null
+                ? hitMasks.getHitMask(Animation.RASENGAN, player.getRasenganFrameIndex(), true) : null;
+        if (attack != null) {
+            collideMasks(now, player, attack, facingFlag);
+        } else {
+            collideRange(now, player, facingFlag);
+        }
+        pruneEngaged();
+    }
+
+    private void collideMasks(long now, Player player, HitMask attack, int facingFlag) {
+        int attackX = player.getRasenganX();
+        int attackY = player.getRasenganY();
+        int count = grid.query(attackX - MAX_FRAME_WIDTH + CENTER_OFFSET, attackY - MAX_FRAME_HEIGHT + CENTER_OFFSET,
+                attackX + attack.getWidth() + CENTER_OFFSET, attackY + attack.getHeight() + CENTER_OFFSET, candidates);
+        HitMask[] idleMasks = hitMasks.getHitMasks(Animation.IDLE, false);
+        HitMask[] hitFrameMasks = hitMasks.getHitMasks(Animation.HIT, false);
+        overlapPass++;
+        for (int n = 0; n < count; n++) {
+            int i = candidates[n];
+            if (mode[i] != MODE_ACTIVE) {
+                continue;
+            }
+            boolean hit = getAnimation(i) == Animation.HIT;
+            HitMask[] masks = hit ? hitFrameMasks : idleMasks;
+            if (masks == null || masks.length == 0) {
+                continue;
+            }
+            int frame = getFrameIndex(i) % masks.length;
+            int bombX = x[i] + offsetX[i];
+            int bombY = y[i] + offsetY[i];
+            long key = (long) ((hit ? 1 << 8 : 0) | frame) << 40
+                    | ((bombX - attackX) & 0xFFFFFL) << 20 | ((bombY - attackY) & 0xFFFFFL);
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - OVERLAP_CACHE_BITS));
+            if (overlapPasses[slot] != overlapPass || overlapKeys[slot] != key) {
+                overlapPasses[slot] = overlapPass;
+                overlapKeys[slot] = key;
+                overlapResults[slot] = HitMask.overlaps(attack, attackX, attackY, masks[frame], bombX, bombY);
+            }
+            if (overlapResults[slot]) {
+                applyDamage(i, now, facingFlag);
+                engage(i);
+            }
+        }
+    }
+
+    private void collideRange(long now, Player player, int facingFlag) {
+        int playerCenterX = player.getCenterX();
+        int playerCenterY = player.getCenterY();
+        int count = grid.query(playerCenterX, playerCenterY, GameSettings.ATTACK_RANGE, candidates);
+        for (int n = 0; n < count; n++) {
+            int i = candidates[n];
+            if (mode[i] != MODE_ACTIVE) {
+                continue;
+            }
+            long dx = playerCenterX - (x[i] + CENTER_OFFSET);
+            long dy = playerCenterY - (y[i] + CENTER_OFFSET);
+            if (dx * dx + dy * dy < ATTACK_RANGE_SQUARED) {
+                applyDamage(i, now, facingFlag);
+                engage(i);
+            }
+        }
+    }
+
+    private void engage(int i) {
+        if (engagedIndex[i] < 0) {
+            engagedIndex[i] = engagedCount;
+            engaged[engagedCount++] = i;
+        }
+    }
+
+    private void pruneEngaged() {
+        int n = 0;
+        while (n < engagedCount) {
+            int i = engaged[n];
+            int f = flags[i];
+            boolean pending = (f & BEING_ATTACKED) != 0 || ((f & HIT) != 0 && (f & HIT_STARTED) == 0);
+            if ((f & ALIVE) != 0 && pending) {
+                n++;
+                continue;
+            }
+            int last = engaged[--engagedCount];
+            engaged[n] = last;
+            engagedIndex[last] = n;
+            engagedIndex[i] = -1;
+        }
+    }
+
+    private void applyDamage(int i, long now, int facingFlag) {
+        int f = flags[i];
+        health[i] -= GameSettings.DAMAGE_PER_FRAME;
+        f = (f | BEING_ATTACKED) & ~LAST_PLAYER_RIGHT | facingFlag;
+        lastDamageTime[i] = now;
+
+        if ((f & HIT) == 0) {
+            f = (f | HIT) & ~HIT_STARTED;
+        }
+
+        if (health[i] <= 0) {
+            health[i] = 0;
+            f = (f | DEAD | HIT | HIT_STARTED) & ~BEING_ATTACKED;
+            hitFrame[i] = 0;
+            sounds.play(SoundCue.BOMB_DEATH);
+        }
+        flags[i] = f;
+    }
+
+    private void updateSmoothHealth() {
+        for (int i = 0; i < highWater; i++) {
+            if (mode[i] != MODE_ACTIVE) {
+                continue;
+            }
+            float smooth = smoothHealth[i];
+            int target = health[i];
+            if (smooth > target) {
+                smoothHealth[i] = Math.max(target, smooth - 2.0f);
+            } else if (smooth < target) {
+                smoothHealth[i] = target;
+            }
+        }
+    }
+
+    private void updateAnimations(long now) {
+        for (int i = 0; i < highWater; i++) {
+            byte m = mode[i];
+            if (m != MODE_ACTIVE && m != MODE_DEAD) {
+                continue;
+            }
+            int f = flags[i];
+            if ((f & DEAD) != 0) {
+                if (now - lastHitFrameTime[i] >= GameSettings.ANIMATION_BOMB_HIT_DELAY) {
+                    hitFrame[i]++;
+                    if (hitFrame[i] >= Animation.HIT.getFrames() && (f & DEATH_COMPLETE) == 0) {
+                        flags[i] = f | DEATH_COMPLETE | DESTROYED;
+                        lastSpawn[i] = now;
+                    }
+                    lastHitFrameTime[i] = now;
+                }
+            } else if ((f & HIT) != 0) {
+                if (now - lastHitFrameTime[i] >= GameSettings.ANIMATION_BOMB_HIT_DELAY) {
+                    updateHitAnimation(i, now);
+                    lastHitFrameTime[i] = now;
+                }
+            } else if (now - lastIdleFrameTime[i] >= GameSettings.ANIMATION_BOMB_IDLE_DELAY) {
+                idleFrame[i] = (idleFrame[i] + 1) % Animation.IDLE.getFrames();
+                lastIdleFrameTime[i] = now;
+            }
+        }
+    }
+
+    private void updateHitAnimation(int i, long now) {
+        int f = flags[i];
+        if ((f & BEING_ATTACKED) != 0) {
+            hitFrame[i] = (hitFrame[i] + 1) % 2;
+            return;
+        }
+        if ((f & HIT_STARTED) == 0) {
+            hitFrame[i] = 0;
+            f |= HIT_STARTED;
+        }
+        hitFrame[i]++;
+        if (hitFrame[i] >= Animation.HIT.getFrames()) {
+            hitFrame[i] = 0;
+            f = (f & ~(HIT | HIT_STARTED)) | BLINKING;
+            blinkStartTime[i] = now;
+            offsetY[i] = 0;
+            offsetX[i] = 0;
+            sounds.play(SoundCue.BOMB_HIT);
+
+            if ((f & KNOCKED_BACK) == 0) {
+                f |= KNOCKED_BACK;
+                int width = (int) (Animation.IDLE.getFrameWidth() * GameSettings.PLAYER_SCALE);
+                if ((f & LAST_PLAYER_RIGHT) != 0) {
+                    x[i] = Math.min(x[i] + GameSettings.BOMB_KNOCKBACK_DISTANCE, GameSettings.WINDOW_WIDTH - width);
+                } else {
+                    x[i] = Math.max(x[i] - GameSettings.BOMB_KNOCKBACK_DISTANCE, 0);
+                }
+                grid.update(i, x[i] + CENTER_OFFSET, y[i] + CENTER_OFFSET);
+            }
+        }
+        flags[i] = f;
+    }
+
+    private void updateBlinking(long now) {
+        for (int i = 0; i < highWater; i++) {
+            if (mode[i] != MODE_ACTIVE) {
+                continue;
+            }
+            int f = flags[i];
+            if ((f & BLINKING) != 0 && now - blinkStartTime[i] >= GameSettings.BOMB_BLINK_DURATION) {
+                flags[i] = f & ~(BLINKING | KNOCKED_BACK);
+                offsetY[i] = 0;
+                offsetX[i] = 0;
+            }
+        }
+    }
+
+    public Animation getAnimation(int id) {
+        int f = flags[id];
+        if ((f & DEAD) != 0 && (f & DEATH_COMPLETE) == 0) {
+            return Animation.HIT;
+        } else if ((f & HIT) != 0) {
+            return Animation.HIT;
+        } else if ((f & (DEAD | DESTROYED)) == 0) {
+            return Animation.IDLE;
+        }
+        return null;
+    }
+
+    public int getFrameIndex(int id) {
+        Animation animation = getAnimation(id);
+        if (animation == Animation.HIT) {
+            return hitFrame[id] % Animation.HIT.getFrames();
+        } else if (animation == Animation.IDLE) {
+            return idleFrame[id] % Animation.IDLE.getFrames();
+        }
+        return 0;
+    }
+
+    public int getFrameHandle(int id) {
+        Animation animation = getAnimation(id);
+        return animation != null ? TextureAtlas.getHandle(animation, getFrameIndex(id)) : TextureAtlas.NO_FRAME;
+    }
+
+    public boolean shouldDraw(int id, long now) {
+        int f = flags[id];
+        if ((f & DEAD) != 0 && (f & DEATH_COMPLETE) != 0) {
+            return false;
+        }
+        if ((f & BLINKING) != 0) {
+            return (now / 100) % 2 == 0;
+        }
+        return true;
+    }
+
+    public int getSmoothHealthWidth(int id) {
+        int smoothMaxHealth = 400;
+        float safeSmoothHealth = Math.max(0, smoothHealth[id]);
+        return (int)(safeSmoothHealth / smoothMaxHealth * 400);
+    }
+
+    public int getRenderX(int id, double alpha) {
+        return prevX[id] + (int) Math.round((x[id] - prevX[id]) * alpha) + offsetX[id];
+    }
+
+    public int getRenderY(int id, double alpha) {
+        return prevY[id] + (int) Math.round((y[id] - prevY[id]) * alpha) + offsetY[id];
+    }
+
+    public long getStateHash() {
+        long hash = highWater;
+        for (int i = 0; i < highWater; i++) {
+            hash = hash * 31 + mode[i];
+            hash = hash * 31 + flags[i];
+            hash = hash * 31 + x[i];
+            hash = hash * 31 + y[i];
+            hash = hash * 31 + offsetX[i];
+            hash = hash * 31 + offsetY[i];
+            hash = hash * 31 + health[i];
+            hash = hash * 31 + idleFrame[i];
+            hash = hash * 31 + hitFrame[i];
+        }
+        return hash;
+    }
+
+    public boolean isAlive(int id) { return id >= 0 && id < highWater && (flags[id] & ALIVE) != 0; }
+    public boolean hasHitMasks() { return hitMasks != null; }
+    public int getCount() { return count; }
+    public int getHighWater() { return highWater; }
+    public int getX(int id) { return x[id]; }
+    public int getY(int id) { return y[id]; }
+    public int getOffsetX(int id) { return offsetX[id]; }
+    public int getOffsetY(int id) { return offsetY[id]; }
+    public int getHealth(int id) { return health[id]; }
+    public int getMaxHealth() { return maxHealth; }
+    public boolean isDead(int id) { return (flags[id] & DEAD) != 0; }
+    public boolean isDestroyed(int id) { return (flags[id] & DESTROYED) != 0; }
+    public boolean isHit(int id) { return (flags[id] & HIT) != 0; }
+    public boolean isBlinking(int id) { return (flags[id] & BLINKING) != 0; }
+    public long getLastSpawnTime(int id) { return lastSpawn[id]; }
+}
@@ -0,0 +1,97 @@
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class ChromaKey {
+
+    private static final int PARALLEL_THRESHOLD = 512 * 512;
+    private static final int MIN_ROWS_PER_BAND = 32;
+
+    private final int[] redMin, redMax;
+    private final int[] greenMin, greenMax;
+    private final int[] blueMin, blueMax;
+
+    public ChromaKey(Color color, int tolerance) {
+        this(new Color[] {color}, new int[] {tolerance});
+    }
+
+    public ChromaKey(Color[] colors, int tolerance) {
+        this(colors, filled(colors.length, tolerance));
+    }
+
+    public ChromaKey(Color[] colors, int[] tolerances) {
+        if (colors.length != tolerances.length) {
+            throw new IllegalArgumentException("Expected one tolerance per key color");
+        }
+        int keys = colors.length;
+        redMin = new int[keys];
+        redMax = new int[keys];
+        greenMin = new int[keys];
+        greenMax = new int[keys];
+        blueMin = new int[keys];
+        blueMax = new int[keys];
+        for (int k = 0; k < keys; k++) {
+            int tolerance = tolerances[k];
+            redMin[k] = colors[k].getRed() - tolerance;
+            redMax[k] = colors[k].getRed() + tolerance;
+            greenMin[k] = colors[k].getGreen() - tolerance;
+            greenMax[k] = colors[k].getGreen() + tolerance;
+            blueMin[k] = colors[k].getBlue() - tolerance;
+            blueMax[k] = colors[k].getBlue() + tolerance;
+        }
+    }
+
+    private static int[] filled(int length, int value) {
+        int[] values = new int[length];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    public BufferedImage apply(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        BufferedImage scratch = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = scratch.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.drawImage(source, 0, 0, null);
+        g2d.dispose();
+
+        int[] pixels = ((DataBufferInt) scratch.getRaster().getDataBuffer()).getData();
+        if ((long) width * height >= PARALLEL_THRESHOLD) {
+            int bands = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), height / MIN_ROWS_PER_BAND));
+            int rowsPerBand = (height + bands - 1) / bands;
+            IntStream.range(0, bands).parallel().forEach(band -> {
+                int fromRow = band * rowsPerBand;
+                int toRow = Math.min(height, fromRow + rowsPerBand);
+                apply(pixels, fromRow * width, toRow * width);
+            });
+        } else {
+            apply(pixels, 0, pixels.length);
+        }
+
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        out.getRaster().setDataElements(0, 0, width, height, pixels);
+        return out;
+    }
+
+    public void apply(int[] pixels, int from, int to) {
+        int keys = redMin.length;
+        for (int i = from; i < to; i++) {
+            int pixel = pixels[i];
+            int r = (pixel >> 16) & 0xFF, g = (pixel >> 8) & 0xFF, b = pixel & 0xFF;
+            for (int k = 0; k < keys; k++) {
+                if (r >= redMin[k] && r <= redMax[k]
+                        && g >= greenMin[k] && g <= greenMax[k]
+                        && b >= blueMin[k] && b <= blueMax[k]) {
+                    pixels[i] = 0x00000000;
+                    break;
+                }
+            }
+        }
+    }
+}
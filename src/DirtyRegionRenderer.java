@@ -0,0 +1,91 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+public class DirtyRegionRenderer {
+
+    private static final double FULL_REDRAW_RATIO = 0.5;
+    private static final int MAX_RETAINED_FRAMES = 3;
+    private static final int FULL_FRAME = -1;
+
+    private final GameRenderer renderer;
+    private final DirtyRegions regions = new DirtyRegions(GameRenderer.SLOT_COUNT);
+    private final Rectangle[][] history = new Rectangle[MAX_RETAINED_FRAMES + 1][GameRenderer.SLOT_COUNT * 2];
+    private final int[] historyCounts = new int[MAX_RETAINED_FRAMES + 1];
+    private final Rectangle[] present = new Rectangle[(MAX_RETAINED_FRAMES + 1) * GameRenderer.SLOT_COUNT * 2];
+    private int historyIndex = 0;
+
+    private BufferedImage frame;
+    private Graphics2D frameGraphics;
+    private boolean invalid = true;
+
+    public DirtyRegionRenderer(GameRenderer renderer) {
+        this.renderer = renderer;
+        for (Rectangle[] rects : history) {
+            for (int i = 0; i < rects.length; i++) {
+                rects[i] = new Rectangle();
+            }
+        }
+        for (int i = 0; i < present.length; i++) {
+            present[i] = new Rectangle();
+        }
+    }
+
+    public void invalidate() {
+        invalid = true;
+    }
+
+    public void render(Graphics2D target, RenderSnapshot snapshot, double alpha, int width, int height, int retainedFrames) {
+        if (frame == null || frame.getWidth() != width || frame.getHeight() != height) {
+            if (frameGraphics != null) {
+                frameGraphics.dispose();
+            }
+            frame = target.getDeviceConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+            frameGraphics = frame.createGraphics();
+            invalid = true;
+        }
+
+        renderer.setMeasuring(regions);
+        regions.begin();
+        renderer.drawMatch(frameGraphics, snapshot, alpha, width, height);
+        regions.end();
+        renderer.setMeasuring(null);
+
+        historyIndex = (historyIndex + 1) % history.length;
+        Rectangle[] changed = history[historyIndex];
+        if (invalid || regions.getDirtyArea() > FULL_REDRAW_RATIO * width * height) {
+            frameGraphics.setClip(null);
+            renderer.drawMatch(frameGraphics, snapshot, alpha, width, height);
+            historyCounts[historyIndex] = FULL_FRAME;
+            invalid = false;
+        } else {
+            for (int i = 0; i < regions.getDirtyCount(); i++) {
+                Rectangle dirty = regions.getDirty(i);
+                frameGraphics.setClip(dirty);
+                renderer.drawMatch(frameGraphics, snapshot, alpha, width, height);
+                changed[i].setBounds(dirty);
+            }
+            historyCounts[historyIndex] = regions.getDirtyCount();
+        }
+
+        int count = 0;
+        int frames = Math.min(Math.max(retainedFrames, 0), MAX_RETAINED_FRAMES);
+        for (int age = 0; age <= frames; age++) {
+            int index = (historyIndex - age + history.length) % history.length;
+            if (historyCounts[index] == FULL_FRAME || retainedFrames <= 0) {
+                target.drawImage(frame, 0, 0, null);
+                return;
+            }
+            for (int i = 0; i < historyCounts[index]; i++) {
+                present[count++].setBounds(history[index][i]);
+            }
+        }
+
+        count = DirtyRegions.merge(present, count);
+        for (int i = 0; i < count; i++) {
+            Rectangle r = present[i];
+            target.drawImage(frame, r.x, r.y, r.x + r.width, r.y + r.height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+        }
+    }
+}
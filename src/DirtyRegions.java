@@ -0,0 +1,112 @@
+import java.awt.Rectangle;
+
+public class DirtyRegions {
+
+    private static final int FIELDS = 5;
+
+    private final int slots;
+    private int[] previous;
+    private int[] current;
+    private final Rectangle[] dirty;
+    private int dirtyCount = 0;
+
+    public DirtyRegions(int slots) {
+        this.slots = slots;
+        this.previous = new int[slots * FIELDS];
+        this.current = new int[slots * FIELDS];
+        this.dirty = new Rectangle[slots * 2];
+        for (int i = 0; i < dirty.length; i++) {
+            dirty[i] = new Rectangle();
+        }
+    }
+
+    public void begin() {
+        for (int slot = 0; slot < slots; slot++) {
+            current[slot * FIELDS + 2] = 0;
+        }
+    }
+
+    public void add(int slot, int key, int x, int y, int width, int height) {
+        int i = slot * FIELDS;
+        current[i] = x;
+        current[i + 1] = y;
+        current[i + 2] = Math.max(0, width);
+        current[i + 3] = Math.max(0, height);
+        current[i + 4] = key;
+    }
+
+    public void end() {
+        dirtyCount = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int i = slot * FIELDS;
+            boolean wasDrawn = previous[i + 2] > 0 && previous[i + 3] > 0;
+            boolean isDrawn = current[i + 2] > 0 && current[i + 3] > 0;
+            if (!wasDrawn && !isDrawn) {
+                continue;
+            }
+            if (wasDrawn && isDrawn && sameEntry(i)) {
+                continue;
+            }
+            if (wasDrawn) {
+                addDirty(previous, i);
+            }
+            if (isDrawn) {
+                addDirty(current, i);
+            }
+        }
+        dirtyCount = merge(dirty, dirtyCount);
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+    }
+
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    public Rectangle getDirty(int index) {
+        return dirty[index];
+    }
+
+    public long getDirtyArea() {
+        long area = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            area += (long) dirty[i].width * dirty[i].height;
+        }
+        return area;
+    }
+
+    private boolean sameEntry(int i) {
+        for (int field = 0; field < FIELDS; field++) {
+            if (previous[i + field] != current[i + field]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addDirty(int[] bounds, int i) {
+        dirty[dirtyCount++].setBounds(bounds[i], bounds[i + 1], bounds[i + 2], bounds[i + 3]);
+    }
+
+    public static int merge(Rectangle[] rects, int count) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int a = 0; a < count && !merged; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    if (rects[a].intersects(rects[b])) {
+                        rects[a].add(rects[b]);
+                        Rectangle removed = rects[b];
+                        rects[b] = rects[--count];
+                        rects[count] = removed;
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,83 @@
+public class FixedTimestep {
+
+    private final long tickNanos;
+    private final int maxTicksPerFrame;
+    private final long maxFrameNanos;
+
+    private long lastTime = -1;
+    private long accumulator = 0;
+    private long tickCount = 0;
+    private long droppedTicks = 0;
+    private volatile double timeScale = 1.0;
+
+    public FixedTimestep(long tickNanos, int maxTicksPerFrame, long maxFrameNanos) {
+        this.tickNanos = tickNanos;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+        this.maxFrameNanos = maxFrameNanos;
+    }
+
+    public FixedTimestep() {
+        this(GameSettings.TICK_NANOS, GameSettings.MAX_CATCH_UP_TICKS, GameSettings.MAX_FRAME_NANOS);
+    }
+
+    public int advance(long nowNanos) {
+        if (lastTime < 0) {
+            lastTime = nowNanos;
+            return 0;
+        }
+
+        long frameTime = nowNanos - lastTime;
+        lastTime = nowNanos;
+        if (frameTime > maxFrameNanos) {
+            droppedTicks += (frameTime - maxFrameNanos) / tickNanos;
+            frameTime = maxFrameNanos;
+        }
+        if (frameTime > 0) {
+            accumulator += (long) (frameTime * timeScale);
+        }
+
+        int ticks = (int) Math.min(accumulator / tickNanos, getMaxTicksPerFrame());
+        accumulator -= ticks * tickNanos;
+
+        if (accumulator >= tickNanos) {
+            droppedTicks += accumulator / tickNanos;
+            accumulator %= tickNanos;
+        }
+
+        tickCount += ticks;
+        return ticks;
+    }
+
+    public double getAlpha() {
+        return (double) accumulator / tickNanos;
+    }
+
+    public long getNanosUntilNextTick() {
+        return (long) ((tickNanos - accumulator) / timeScale);
+    }
+
+    private int getMaxTicksPerFrame() {
+        return (int) Math.ceil(maxTicksPerFrame * Math.max(1.0, timeScale));
+    }
+
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public void reset() {
+        lastTime = -1;
+        accumulator = 0;
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Arrays;
+
+public class FrameTimeStats {
+
+    private static final int WINDOW = 600;
+
+    private final String label;
+    private final String metric;
+    private final String unit;
+    private final long[] samples = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int count = 0;
+    private long lastFrame = -1;
+
+    public FrameTimeStats(String label) {
+        this(label, "frame time", "frames");
+    }
+
+    public FrameTimeStats(String label, String metric, String unit) {
+        this.label = label;
+        this.metric = metric;
+        this.unit = unit;
+    }
+
+    public void frame(long nowNanos) {
+        if (lastFrame >= 0) {
+            sample(nowNanos - lastFrame);
+        }
+        lastFrame = nowNanos;
+    }
+
+    public void sample(long nanos) {
+        samples[count++] = nanos;
+        if (count == samples.length) {
+            report();
+            count = 0;
+        }
+    }
+
+    private void report() {
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        System.out.printf("[%s] %s over %d %s: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                label, metric, count, unit, percentile(0.50), percentile(0.95), percentile(0.99), sorted[count - 1] / 1e6);
+    }
+
+    private double percentile(double p) {
+        int index = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
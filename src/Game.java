@@ -1,107 +1,108 @@
 import java.awt.*;
-import javax.sound.sampled.*;
+import java.awt.event.KeyEvent;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 public class Game extends JPanel implements Runnable {
 
-    private final Player player;
-    private final Bomb bomb;
+    private static final Animation[] GAME_ANIMATIONS = {
+            Animation.IDLE, Animation.WALK, Animation.ATTACK, Animation.RASENGAN,
+            Animation.HIT, Animation.JUMP, Animation.START
+    };
+
     private final AnimationManager animationManager;
     private final GameRenderer renderer;
+    private final DirtyRegionRenderer dirtyRenderer;
     private final MainMenu mainMenu;
     private final TitleScreen titleScreen;
     private final SoundManager soundManager;
-
-    private boolean movingLeft = false;
-    private boolean movingRight = false;
-    private boolean gameStarted = false;
-    private long gameStartTime = 0;
-    private static final long MENU_PROTECTION_TIME = 3000;
-    private boolean showingTitle = true;
-    private boolean hasPlayedStartAnimation = false;
-    private boolean hasPlayedRespawnSound = false;
-    private boolean hasPlayedVsSound = false;
-    private Clip vsSound;
-
-    public Game() {
+    private final AudioMixer soundPlayer;
+    private final CompletableFuture<Void> assetsLoaded;
+    private final long loadStart;
+    private boolean startPending = false;
+
+    private volatile Match match;
+    private final RenderSnapshots snapshots = new RenderSnapshots();
+    private volatile boolean gameStarted = false;
+    private volatile boolean showingTitle = true;
+
+    private final FixedTimestep timestep = new FixedTimestep();
+    private volatile double renderAlpha = 0;
+
+    private final ActiveRenderCanvas activeCanvas;
+    private final FrameTimeStats frameStats;
+    private final InputQueue inputQueue;
+    private volatile Path recordPath;
+    private volatile ReplayPlayer replayPlayer;
+    private Match recordedMatch;
+    private InputRecorder recorder;
+    private boolean replayReported = false;
+
+    private final TextLabel menuTitleLabel = new TextLabel("Project-Shinobi-Battlegrounds", Font.BOLD, 64, Color.WHITE);
+    private final TextLabel menuInstructionLabel = new TextLabel("Click Anywhere to Start", Font.PLAIN, 28, Color.WHITE);
+    private final TextLabel menuControlsLabel = new TextLabel("A/D - Move Left/Right  |  W - Jump  |  SPACE - Attack", Font.PLAIN, 18, Color.WHITE);
+    private final TextLabel menuSubtitleLabel = new TextLabel("Fight the Bomb Enemy!", Font.PLAIN, 16, Color.WHITE);
+    private final TextLabel menuEscLabel = new TextLabel("ESC - Back to Menu", Font.PLAIN, 14, Color.WHITE);
+
+    public Game(boolean activeRendering, boolean reportFrameTimes, boolean dirtyRegions, boolean reportInputLatency) {
+        loadStart = System.nanoTime();
+        titleScreen = new TitleScreen(this);
+        soundPlayer = new AudioMixer();
+        soundManager = new SoundManager(soundPlayer);
         animationManager = new AnimationManager();
-        player = new Player(animationManager);
-        bomb = new Bomb(animationManager);
         renderer = new GameRenderer();
+        dirtyRenderer = dirtyRegions ? new DirtyRegionRenderer(renderer) : null;
         mainMenu = new MainMenu(this);
-        titleScreen = new TitleScreen(this);
-        soundManager = new SoundManager();
-        loadVsSound();
+
+        assetsLoaded = CompletableFuture.allOf(
+                soundManager.load(),
+                animationManager.loadAtlas(GameSettings.PLAYER_ATLAS, GAME_ANIMATIONS).thenAccept(renderer::setAtlas),
+                renderer.load());
+        soundPlayer.start();
 
         setPreferredSize(GameSettings.WINDOW_SIZE);
         setBackground(Color.BLACK);
         setFocusable(true);
 
+        inputQueue = new InputQueue(GameSettings.INPUT_QUEUE_SIZE, reportInputLatency);
+        frameStats = reportFrameTimes ? new FrameTimeStats(activeRendering ? "active" : "passive") : null;
+        if (activeRendering) {
+            setLayout(new BorderLayout());
+            setIgnoreRepaint(true);
+            activeCanvas = new ActiveRenderCanvas(this);
+            renderer.setImageCache(new VolatileImageCache());
+            add(activeCanvas, BorderLayout.CENTER);
+        } else {
+            activeCanvas = null;
+        }
+
         addKeyListener(titleScreen);
         addMouseListener(titleScreen);
 
         addKeyListener(new java.awt.event.KeyAdapter() {
             @Override
-            public void keyPressed(java.awt.event.KeyEvent e) {
-                if (!gameStarted) {
-
-                    if (e.getKeyCode() == java.awt.event.KeyEvent.VK_SPACE) {
-                        long currentTime = System.currentTimeMillis();
-                        if (currentTime - gameStartTime < MENU_PROTECTION_TIME) {
-                            return;
-                        }
-                    }
-                    return;
-                }
-
-                if (!player.isAttacking() && !player.isJumping()) {
-                    if (e.getKeyCode() == java.awt.event.KeyEvent.VK_A) {
-                        movingLeft = true;
-                        player.setFacingRight(false);
-                    }
-                    if (e.getKeyCode() == java.awt.event.KeyEvent.VK_D) {
-                        movingRight = true;
-                        player.setFacingRight(true);
-                    }
-                }
-
-                if (e.getKeyCode() == java.awt.event.KeyEvent.VK_W) {
-                    player.startJump(System.currentTimeMillis());
-                }
+            public void keyPressed(KeyEvent e) {
+                if (!gameStarted) return;
 
-                if (e.getKeyCode() == java.awt.event.KeyEvent.VK_SPACE) {
-                    player.startAttack(System.currentTimeMillis());
+                int key = toInput(e.getKeyCode());
+                if (key != 0) {
+                    inputQueue.offer(key, true, System.nanoTime());
                 }
             }
 
             @Override
-            public void keyReleased(java.awt.event.KeyEvent e) {
+            public void keyReleased(KeyEvent e) {
                 if (!gameStarted) return;
 
-                if (!player.isAttacking() && !player.isJumping()) {
-                    if (e.getKeyCode() == java.awt.event.KeyEvent.VK_A) {
-                        movingLeft = false;
-                    }
-                    if (e.getKeyCode() == java.awt.event.KeyEvent.VK_D) {
-                        movingRight = false;
-                    }
-                }
-
-                if (e.getKeyCode() == java.awt.event.KeyEvent.VK_SPACE) {
-                    player.stopAttackInput();
-                }
-
-                if (e.getKeyCode() == java.awt.event.KeyEvent.VK_ESCAPE) {
-                    if (gameStarted) {
-                        gameStarted = false;
-                        hasPlayedStartAnimation = false;
-                        hasPlayedRespawnSound = false;
-                        hasPlayedVsSound = false;
-                        if (vsSound != null) {
-                            vsSound.stop();
-                        }
-                        showMainMenu();
-                    }
+                int key = toInput(e.getKeyCode());
+                if (key == Input.ESCAPE) {
+                    gameStarted = false;
+                    soundPlayer.stop(SoundCue.VS);
+                    showMainMenu();
+                } else if (key != 0) {
+                    inputQueue.offer(key, false, System.nanoTime());
                 }
             }
         });
@@ -112,139 +113,159 @@ public class Game extends JPanel implements Runnable {
     @Override
     public void run() {
         while (true) {
-            long now = System.currentTimeMillis();
-
-            if (gameStarted) {
-                boolean wasAttacking = player.isAttacking();
-                player.update(now, player.isAttacking(), movingLeft, movingRight);
+            int ticks = timestep.advance(System.nanoTime());
+            for (int i = 0; i < ticks; i++) {
+                tick();
+            }
+            Match current = match;
+            if (ticks > 0 && gameStarted && current != null) {
+                snapshots.publish(current);
+            }
+            renderAlpha = timestep.getAlpha();
 
-                if (wasAttacking && !player.isAttacking()) {
-                    movingLeft = false;
-                    movingRight = false;
-                }
-                
-                if (player.isJumping()) {
-                    movingLeft = false;
-                    movingRight = false;
+            if (activeCanvas != null) {
+                if (activeCanvas.render() && frameStats != null) {
+                    frameStats.frame(System.nanoTime());
                 }
+            } else {
+                repaint();
+            }
 
-                player.updateStartAnimation(now);
-                bomb.update(now, player);
+            try {
+                long sleepNanos = timestep.getNanosUntilNextTick();
+                Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 
-                long elapsedSinceStart = now - gameStartTime;
-                if (elapsedSinceStart >= 500 && !hasPlayedVsSound) {
-                    playVsSound();
-                    hasPlayedVsSound = true;
-                }
-                if (elapsedSinceStart >= 1000 && !hasPlayedStartAnimation && !hasPlayedRespawnSound) {
-                    soundManager.stopBackgroundMusic();
-                    player.startGameAnimation();
-                    bomb.playRespawnSound();
-                    hasPlayedStartAnimation = true;
-                    hasPlayedRespawnSound = true;
+    private void tick() {
+        Match current = match;
+        boolean running = gameStarted && current != null;
+        updateRecording(running ? current : null);
+        ReplayPlayer replay = replayPlayer;
+        inputQueue.drain(running && replay == null ? current : null, System.nanoTime());
+        if (running) {
+            if (replay != null) {
+                if (replay.isFinished(current)) {
+                    reportReplay(replay, current);
+                    return;
                 }
+                replay.apply(current);
             }
+            current.tick();
+            if (current.isIntroPlayed()) {
+                soundManager.stopBackgroundMusic();
+            }
+        }
+    }
 
-            repaint();
-
+    private void updateRecording(Match current) {
+        if (recordedMatch != null && recordedMatch != current) {
             try {
-                Thread.sleep(16);
-            } catch (InterruptedException e) {
+                recorder.record(recordedMatch.getTickCount(), Input.ESCAPE, true);
+                recorder.finish(recordedMatch);
+            } catch (Exception e) {
                 e.printStackTrace();
             }
+            recordedMatch = null;
+            recorder = null;
+        }
+        Path path = recordPath;
+        if (current != null && path != null && recordedMatch == null && current.getTickCount() == 0) {
+            recorder = new InputRecorder(path);
+            current.setRecorder(recorder);
+            recordedMatch = current;
         }
     }
 
+    private void reportReplay(ReplayPlayer replay, Match current) {
+        if (!replayReported) {
+            replayReported = true;
+            System.out.printf("Replay finished at tick %d, bomb kills %d, final state %s%n",
+                    current.getTickCount(), current.getBombKills(),
+                    replay.matchesRecording(current) ? "matches recording" : "DIVERGED from recording");
+        }
+    }
+
+    private static int toInput(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_A: return Input.LEFT;
+            case KeyEvent.VK_D: return Input.RIGHT;
+            case KeyEvent.VK_W: return Input.JUMP;
+            case KeyEvent.VK_SPACE: return Input.ATTACK;
+            case KeyEvent.VK_ESCAPE: return Input.ESCAPE;
+            default: return 0;
+        }
+    }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        if (activeCanvas != null) {
+            return;
+        }
+
+        if (frameStats != null) {
+            frameStats.frame(System.nanoTime());
+        }
+        render((Graphics2D) g, getWidth(), getHeight());
+    }
 
+    public void render(Graphics2D g2d, int width, int height) {
         if (showingTitle) {
-            titleScreen.paintComponent(g);
+            invalidateFrame();
+            titleScreen.paintComponent(g2d);
             return;
         }
 
-        if (!gameStarted) {
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-
-            int centerX = getWidth() / 2;
-            int centerY = getHeight() / 2;
-
-            g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 64));
-            FontMetrics titleMetrics = g2d.getFontMetrics();
-            String title = "Project-Shinobi-Battlegrounds";
-            int titleX = centerX - titleMetrics.stringWidth(title) / 2;
-            int titleY = centerY - 60;
-            g2d.drawString(title, titleX, titleY);
-
-            g2d.setFont(new Font("Arial", Font.PLAIN, 28));
-            FontMetrics instructionMetrics = g2d.getFontMetrics();
-            String instruction = "Click Anywhere to Start";
-            int instructionX = centerX - instructionMetrics.stringWidth(instruction) / 2;
-            int instructionY = centerY + 20;
-            g2d.drawString(instruction, instructionX, instructionY);
-
-            g2d.setFont(new Font("Arial", Font.PLAIN, 18));
-            FontMetrics controlsMetrics = g2d.getFontMetrics();
-            String controls = "A/D - Move Left/Right  |  W - Jump  |  SPACE - Attack";
-            int controlsX = centerX - controlsMetrics.stringWidth(controls) / 2;
-            int controlsY = centerY + 70;
-            g2d.drawString(controls, controlsX, controlsY);
-
-            g2d.setFont(new Font("Arial", Font.PLAIN, 16));
-            FontMetrics subtitleMetrics = g2d.getFontMetrics();
-            String subtitle = "Fight the Bomb Enemy!";
-            int subtitleX = centerX - subtitleMetrics.stringWidth(subtitle) / 2;
-            int subtitleY = centerY + 100;
-            g2d.drawString(subtitle, subtitleX, subtitleY);
-
-            g2d.setFont(new Font("Arial", Font.PLAIN, 14));
-            FontMetrics escMetrics = g2d.getFontMetrics();
-            String escText = "ESC - Back to Menu";
-            int escX = centerX - escMetrics.stringWidth(escText) / 2;
-            int escY = centerY + 130;
-            g2d.drawString(escText, escX, escY);
+        Match current = match;
+        if (!gameStarted || current == null) {
+            invalidateFrame();
+            int centerX = width / 2;
+            int centerY = height / 2;
+
+            menuTitleLabel.drawCentered(g2d, centerX, centerY - 60);
+            menuInstructionLabel.drawCentered(g2d, centerX, centerY + 20);
+            menuControlsLabel.drawCentered(g2d, centerX, centerY + 70);
+            menuSubtitleLabel.drawCentered(g2d, centerX, centerY + 100);
+            menuEscLabel.drawCentered(g2d, centerX, centerY + 130);
             return;
         }
 
-        Graphics2D g2d = (Graphics2D) g;
-        renderer.setGraphics(g2d);
-
-        renderer.drawBackground(getWidth(), getHeight());
-
-        if (player.isPlayingStartAnimation()) {
-            renderer.drawPlayerStartAnimation(player);
-        } else {
-            renderer.drawPlayer(player);
+        RenderSnapshot snapshot = snapshots.acquire();
+        if (snapshot == null || snapshot.getSource() != current) {
+            invalidateFrame();
+            g2d.setColor(Color.BLACK);
+            g2d.fillRect(0, 0, width, height);
+            return;
         }
 
-        renderer.drawBomb(bomb);
-
-        renderer.drawPlayerHealthBar(player, getWidth());
-        renderer.drawBombHealthBar(bomb, getWidth());
-        renderer.drawVS(getWidth());
-        
-        if (!player.isPlayingStartAnimation()) {
-            renderer.drawRasengan(player);
+        if (dirtyRenderer != null) {
+            int retainedFrames = activeCanvas != null ? activeCanvas.getRetainedFrames() : 0;
+            dirtyRenderer.render(g2d, snapshot, renderAlpha, width, height, retainedFrames);
+        } else {
+            renderer.drawMatch(g2d, snapshot, renderAlpha, width, height);
         }
+    }
 
-        long currentTime = System.currentTimeMillis();
+    public boolean isPresentingDirtyRegions() {
+        return dirtyRenderer != null && gameStarted && match != null && !showingTitle;
+    }
 
-        if (!player.canAttack(currentTime)) {
-            renderer.drawCooldownBar(player.getRemainingCooldown(currentTime), GameSettings.ATTACK_COOLDOWN);
-        } else {
-            long remainingAttackTime = player.getRemainingAttackTime(currentTime);
-            if (remainingAttackTime > 0) {
-                renderer.drawAttackBar(remainingAttackTime, GameSettings.MAX_ATTACK_DURATION);
-            }
+    public void invalidateFrame() {
+        if (dirtyRenderer != null) {
+            dirtyRenderer.invalidate();
         }
     }
 
     public void showMainMenu() {
         showingTitle = false;
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::showMainMenu);
+            return;
+        }
         soundManager.startBackgroundMusic();
         removeKeyListener(titleScreen);
         removeMouseListener(titleScreen);
@@ -260,37 +281,76 @@ public class Game extends JPanel implements Runnable {
         requestFocus();
     }
 
+    public CompletableFuture<Void> getAssetsLoaded() {
+        return assetsLoaded;
+    }
+
+    public long getLoadStart() {
+        return loadStart;
+    }
+
     public void startGame() {
+        if (!assetsLoaded.isDone()) {
+            if (!startPending) {
+                startPending = true;
+                assetsLoaded.thenRun(() -> SwingUtilities.invokeLater(this::startGame));
+            }
+            return;
+        }
+        startPending = false;
+        ReplayPlayer replay = replayPlayer;
+        Match next = replay != null ? replay.getReplay().createMatch(soundPlayer) : new Match(soundPlayer);
+        if (replay == null || replay.getReplay().hasHitMasks()) {
+            next.setHitMasks(animationManager);
+        }
+        if (replay != null) {
+            replayPlayer = new ReplayPlayer(replay.getReplay());
+            replayReported = false;
+        }
+        match = next;
         gameStarted = true;
-        gameStartTime = System.currentTimeMillis();
-        bomb.startNewGame(gameStartTime);
         requestFocus();
     }
 
-    private void loadVsSound() {
-        try {
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(new java.io.File("assets/sfx/vs.wav"));
-            vsSound = AudioSystem.getClip();
-            vsSound.open(audioInputStream);
-            FloatControl volumeControl = (FloatControl) vsSound.getControl(FloatControl.Type.MASTER_GAIN);
-            float volume = -15.0f;
-            volumeControl.setValue(volume);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void setRecordPath(Path recordPath) {
+        this.recordPath = recordPath;
     }
 
-    private void playVsSound() {
-        if (vsSound != null) {
-            vsSound.setFramePosition(0);
-            vsSound.loop(Clip.LOOP_CONTINUOUSLY);
-        }
+    public void setReplay(Replay replay, double speed) {
+        replayPlayer = new ReplayPlayer(replay);
+        timestep.setTimeScale(Math.max(0.25, Math.min(8.0, speed)));
     }
 
     public static void main(String[] args) {
         JFrame f = new JFrame("Project-Shinobi-Battlegrounds");
         f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        Game game = new Game();
+        java.util.List<String> options = java.util.Arrays.asList(args);
+        Game game = new Game(options.contains("--active"), options.contains("--frame-stats"),
+                options.contains("--dirty-rects"), options.contains("--input-latency"));
+        if (options.contains("--asset-report")) {
+            game.getAssetsLoaded().thenRun(() -> System.out.print(AssetRegistry.report()));
+        }
+        int recordIndex = options.indexOf("--record");
+        if (recordIndex >= 0 && recordIndex + 1 < args.length) {
+            game.setRecordPath(Paths.get(args[recordIndex + 1]));
+        }
+        int replayIndex = options.indexOf("--replay");
+        if (replayIndex >= 0 && replayIndex + 1 < args.length) {
+            int speedIndex = options.indexOf("--replay-speed");
+            try {
+                game.setReplay(Replay.read(Paths.get(args[replayIndex + 1])),
+                        speedIndex >= 0 && speedIndex + 1 < args.length ? Double.parseDouble(args[speedIndex + 1]) : 1.0);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        if (options.contains("--load-timings")) {
+            game.getAssetsLoaded().thenRun(() -> {
+                System.out.printf("Assets loaded in %.1f ms (%s)%n",
+                        (System.nanoTime() - game.getLoadStart()) / 1e6, LoadTimings.summary());
+                System.out.print(LoadTimings.report());
+            });
+        }
         f.add(game);
         f.pack();
         f.setLocationRelativeTo(null);
@@ -1,195 +1,148 @@
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 
 public class GameRenderer {
     
-    private BufferedImage background;
-    private Graphics2D g2d;
+    public static final int SLOT_BACKGROUND = 0;
+    public static final int SLOT_PLAYER = 1;
+    public static final int SLOT_BOMB = 2;
+    public static final int SLOT_RASENGAN = 3;
+    public static final int SLOT_VS = 4;
+    public static final int SLOT_HUD = 5;
+    public static final int SLOT_COUNT = SLOT_HUD + 3;
     
-    public GameRenderer() {
-        loadBackground();
-    }
+    private volatile TextureAtlas atlas;
+    private final ParallaxBackground background = new ParallaxBackground(
+            GameSettings.BACKGROUND_LAYERS, GameSettings.BACKGROUND_PARALLAX);
+    private DirtyRegions measuring;
+    private Graphics2D g2d;
+    private VolatileImageCache imageCache;
+    private final HudLayer hud = new HudLayer();
+    private final TextLabel vsLabel = new TextLabel("VS", Font.BOLD, 24, Color.BLACK);
     
-    private void loadBackground() {
-        try {
-            background = ImageIO.read(new File(GameSettings.BACKGROUND_PATH));
-        } catch (Exception e) {
-        }
+    public CompletableFuture<Void> load() {
+        return AssetLoader.submit(() -> {
+            background.load();
+            return null;
+        });
     }
     
     public void setGraphics(Graphics2D g2d) {
         this.g2d = g2d;
     }
     
-    public void drawBackground(int width, int height) {
-        if (background != null) {
-            g2d.drawImage(background, 0, 0, width, height, null);
-        }
+    public void setAtlas(TextureAtlas atlas) {
+        this.atlas = atlas;
     }
     
-    public void drawPlayer(Player player) {
-        BufferedImage frame = player.getCurrentFrame();
-        if (frame != null) {
-            int drawW = player.getDrawWidth();
-            int drawH = player.getDrawHeight();
-            
-            if (player.isFacingRight()) {
-                g2d.drawImage(frame, player.getX(), player.getY(), drawW, drawH, null);
-            } else {
-                g2d.drawImage(frame,
-                        player.getX() + drawW,
-                        player.getY(),
-                        -drawW,
-                        drawH,
-                        null);
-            }
-        }
+    public void setMeasuring(DirtyRegions measuring) {
+        this.measuring = measuring;
     }
     
-    public void drawRasengan(Player player) {
-        if (player.isShowRasengan()) {
-            BufferedImage rasenganEffect = player.getRasenganFrame();
-            if (rasenganEffect != null) {
-                g2d.drawImage(rasenganEffect, 
-                        player.getRasenganX(), 
-                        player.getRasenganY(), 
-                        GameSettings.RASENGAN_SIZE, 
-                        GameSettings.RASENGAN_SIZE, null);
-            }
-        }
+    public void setImageCache(VolatileImageCache imageCache) {
+        this.imageCache = imageCache;
     }
     
-    public void drawBomb(Bomb bomb) {
-        if (!bomb.isDestroyed() && bomb.shouldDraw()) {
-            BufferedImage bombFrame = bomb.getCurrentFrame();
-            if (bombFrame != null) {
-                int bombDrawW = bomb.getDrawWidth();
-                int bombDrawH = bomb.getDrawHeight();
-                int drawX = bomb.getDrawX();
-                int drawY = bomb.getDrawY();
-                
-                if (bomb.isFacingRight()) {
-                    g2d.drawImage(bombFrame, drawX, drawY, bombDrawW, bombDrawH, null);
-                } else {
-                    g2d.drawImage(bombFrame,
-                            drawX + bombDrawW,
-                            drawY,
-                            -bombDrawW,
-                            bombDrawH,
-                            null);
-                }
-                
-            }
+    private void drawFrame(int slot, int handle, boolean facingRight, int x, int y) {
+        TextureAtlas atlas = this.atlas;
+        if (atlas == null || handle == TextureAtlas.NO_FRAME) {
+            return;
+        }
+        int entry = atlas.getEntry(handle, facingRight);
+        if (!atlas.hasFrame(entry)) {
+            return;
         }
-    }
-    
-    
-    public void drawPlayerHealthBar(Player player, int screenWidth) {
-        int barWidth = 400;
-        int barHeight = 30;
-        int barX = 30;
-        int barY = 10;
-        
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(barX, barY, barWidth, barHeight);
         
-        g2d.setColor(Color.RED);
-        g2d.fillRect(barX, barY, barWidth, barHeight);
+        int sx = atlas.getX(entry);
+        int sy = atlas.getY(entry);
+        int w = atlas.getWidth(entry);
+        int h = atlas.getHeight(entry);
+        int dx = x + atlas.getOffsetX(entry);
+        int dy = y + atlas.getOffsetY(entry);
+        if (measuring != null) {
+            measuring.add(slot, entry, dx, dy, w, h);
+            return;
+        }
         
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(3));
-        g2d.drawRect(barX, barY, barWidth, barHeight);
+        Image image = imageCache != null ? imageCache.get(atlas.getImage(), g2d.getDeviceConfiguration()) : atlas.getImage();
+        g2d.drawImage(image, dx, dy, dx + w, dy + h, sx, sy, sx + w, sy + h, null);
     }
     
-    public void drawBombHealthBar(Bomb bomb, int screenWidth) {
-        int barWidth = 400;
-        int barHeight = 30;
-        int barX = screenWidth - barWidth - 30;
-        int barY = 10;
+    public void drawMatch(Graphics2D g2d, RenderSnapshot snapshot, double alpha, int width, int height) {
+        setGraphics(g2d);
         
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(barX, barY, barWidth, barHeight);
+        drawBackground(width, height);
         
-        if (bomb.isDead()) {
-            long remainingTime = GameSettings.BOMB_SPAWN_DELAY - (System.currentTimeMillis() - bomb.getLastSpawnTime());
-            if (remainingTime > 0) {
-                int respawnWidth = (int)((double)(GameSettings.BOMB_SPAWN_DELAY - remainingTime) / GameSettings.BOMB_SPAWN_DELAY * barWidth);
-                g2d.setColor(Color.ORANGE);
-                g2d.fillRect(barX, barY, respawnWidth, barHeight);
-            }
+        if (snapshot.isPlayingStartAnimation()) {
+            drawPlayerStartAnimation(snapshot);
         } else {
-          
-            int smoothHealthWidth = bomb.getSmoothHealthWidth();
-            g2d.setColor(Color.RED);
-            g2d.fillRect(barX, barY, smoothHealthWidth, barHeight);
+            drawPlayer(snapshot, alpha);
         }
         
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(3));
-        g2d.drawRect(barX, barY, barWidth, barHeight);
-    }
-    
-    public void drawCooldownBar(long remainingTime, long maxCooldown) {
-        int barWidth = 400;
-        int barHeight = 20;
-        int barX = 30;
-        int barY = 50;
-        
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(barX, barY, barWidth, barHeight);
+        drawBomb(snapshot, alpha);
         
-        int currentWidth = (int)((double)(maxCooldown - remainingTime) / maxCooldown * barWidth);
-        g2d.setColor(Color.ORANGE);
-        g2d.fillRect(barX, barY, currentWidth, barHeight);
+        drawHud(snapshot, width);
+        drawVS(width);
         
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(2));
-        g2d.drawRect(barX, barY, barWidth, barHeight);
+        if (!snapshot.isPlayingStartAnimation()) {
+            drawRasengan(snapshot, alpha);
+        }
+    }
+    
+    public void drawBackground(int width, int height) {
+        int version = background.getVersion();
+        if (measuring != null) {
+            measuring.add(SLOT_BACKGROUND, version, 0, 0, width, height);
+            return;
+        }
+        if (version == 0) {
+            return;
+        }
+        background.draw(g2d, imageCache, 0, width, height);
+    }
+    
+    public void drawPlayer(RenderSnapshot snapshot, double alpha) {
+        drawFrame(SLOT_PLAYER, snapshot.getPlayerHandle(), snapshot.isPlayerFacingRight(),
+                snapshot.getPlayerRenderX(alpha), snapshot.getPlayerRenderY(alpha));
+    }
+    
+    public void drawRasengan(RenderSnapshot snapshot, double alpha) {
+        if (snapshot.isShowRasengan()) {
+            drawFrame(SLOT_RASENGAN, snapshot.getRasenganHandle(), true,
+                    snapshot.getRasenganRenderX(alpha), snapshot.getRasenganRenderY(alpha));
+        }
     }
     
-    public void drawAttackBar(long remainingTime, long maxAttackTime) {
-        if (remainingTime > 0) {
-            int barWidth = 400;
-            int barHeight = 20;
-            int barX = 30;
-            int barY = 50;
-            
-            g2d.setColor(Color.WHITE);
-            g2d.fillRect(barX, barY, barWidth, barHeight);
-            
-            int currentWidth = (int)((double)(maxAttackTime - remainingTime) / maxAttackTime * barWidth);
-            g2d.setColor(Color.YELLOW);
-            g2d.fillRect(barX, barY, currentWidth, barHeight);
-            
-            g2d.setColor(Color.BLACK);
-            g2d.setStroke(new BasicStroke(2));
-            g2d.drawRect(barX, barY, barWidth, barHeight);
+    public void drawBomb(RenderSnapshot snapshot, double alpha) {
+        if (snapshot.isBombVisible()) {
+            drawFrame(SLOT_BOMB, snapshot.getBombHandle(), snapshot.isBombFacingRight(),
+                    snapshot.getBombRenderX(alpha), snapshot.getBombRenderY(alpha));
         }
     }
     
+    public void drawHud(RenderSnapshot snapshot, int screenWidth) {
+        hud.update(snapshot, screenWidth);
+        if (measuring != null) {
+            hud.track(measuring, SLOT_HUD);
+            return;
+        }
+        hud.draw(g2d);
+    }
+    
     public void drawVS(int screenWidth) {
-        g2d.setColor(Color.BLACK);
-        g2d.setFont(new Font("Arial", Font.BOLD, 24));
-        FontMetrics fm = g2d.getFontMetrics();
-        String vsText = "VS";
-        int textX = (screenWidth - fm.stringWidth(vsText)) / 2;
-        int textY = 25;
-        g2d.drawString(vsText, textX, textY);
+        int x = (screenWidth - vsLabel.getWidth()) / 2;
+        int y = 25;
+        if (measuring != null) {
+            measuring.add(SLOT_VS, 0, x - TextCache.PADDING, y - vsLabel.getMetrics().getAscent() - TextCache.PADDING,
+                    vsLabel.getWidth() + TextCache.PADDING * 2, vsLabel.getHeight() + TextCache.PADDING * 2);
+            return;
+        }
+        vsLabel.draw(g2d, x, y);
     }
     
-    public void drawPlayerStartAnimation(Player player) {
-        if (player.isPlayingStartAnimation()) {
-            BufferedImage startFrame = player.getCurrentStartFrame();
-            if (startFrame != null) {
-                int drawWidth = (int)(startFrame.getWidth() * player.getScale());
-                int drawHeight = (int)(startFrame.getHeight() * player.getScale());
-                int drawX = player.getX();
-                int drawY = player.getY();
-                
-                g2d.drawImage(startFrame, drawX, drawY, drawWidth, drawHeight, null);
-            }
+    public void drawPlayerStartAnimation(RenderSnapshot snapshot) {
+        if (snapshot.isPlayingStartAnimation()) {
+            drawFrame(SLOT_PLAYER, snapshot.getStartHandle(), true, snapshot.getPlayerX(), snapshot.getPlayerY());
         }
     }
 }
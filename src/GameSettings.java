@@ -3,7 +3,15 @@ import java.awt.Dimension;
 
 public class GameSettings {
     
-    public static final Dimension WINDOW_SIZE = new Dimension(1280, 720);
+    public static final int WINDOW_WIDTH = 1280;
+    public static final int WINDOW_HEIGHT = 720;
+    public static final Dimension WINDOW_SIZE = new Dimension(WINDOW_WIDTH, WINDOW_HEIGHT);
+    
+    public static final int TICK_RATE = 60;
+    public static final long TICK_NANOS = 1000000000L / TICK_RATE;
+    public static final int MAX_CATCH_UP_TICKS = 5;
+    public static final int INPUT_QUEUE_SIZE = 256;
+    public static final long MAX_FRAME_NANOS = 250000000L;
     
     public static final int PLAYER_SPEED = 4;
     public static final double PLAYER_SCALE = 2.3;
@@ -19,7 +27,9 @@ public class GameSettings {
     public static final int BOMB_START_X = 800;
     public static final int BOMB_START_Y = 470;
     public static final int ATTACK_RANGE = 150;
+    public static final int COLLISION_CELL_SIZE = 150;
     public static final int DAMAGE_PER_FRAME = 2;
+    public static final int VERSUS_HEALTH = 300;
     
     public static final int ANIMATION_IDLE_DELAY = 120;
     public static final int ANIMATION_WALK_DELAY = 80;
@@ -29,6 +39,29 @@ public class GameSettings {
     public static final int ANIMATION_JUMP_DELAY = 100;
     public static final int ANIMATION_BOMB_IDLE_DELAY = 120;
     public static final int ANIMATION_BOMB_HIT_DELAY = 150;
+    public static final int ANIMATION_START_DELAY = 100;
+    public static final int ANIMATION_FOG_DELAY = 150;
+    
+    public static final int VS_SOUND_DELAY = 500;
+    public static final int START_ANIMATION_DELAY = 1000;
+    
+    public static final float AUDIO_SAMPLE_RATE = 44100f;
+    public static final int MIXER_VOICES = 16;
+    public static final int MIXER_BLOCK_FRAMES = 256;
+    public static final int MIXER_BUFFER_BLOCKS = 4;
+    public static final int MIXER_QUEUE_SIZE = 256;
+    public static final int MUSIC_BUFFER_FRAMES = 32768;
+    public static final int MUSIC_CHUNK_FRAMES = 4096;
+    public static final long MUSIC_FILL_INTERVAL_NANOS = 10000000L;
+    public static final int MUSIC_CROSSFADE_MS = 500;
+    
+    public static final int NET_INPUT_DELAY = 2;
+    public static final int NET_MAX_ROLLBACK_FRAMES = 8;
+    public static final int NET_INPUT_WINDOW = 32;
+    public static final int NET_MAX_PACKET_SIZE = 64;
+    public static final int SERVER_PORT = 7777;
+    public static final int SERVER_BACKLOG = 1024;
+    public static final int SERVER_REPORT_INTERVAL = 5000;
     
     public static final int BOMB_BLINK_DURATION = 1000;
 
@@ -43,13 +76,20 @@ public class GameSettings {
     public static final int RASENGAN_COLOR_TOLERANCE = 80;
     
     public static final String BACKGROUND_PATH = "assets/map/map-naruto.png";
+    public static final String[] BACKGROUND_LAYERS = {"assets/map/map.png", BACKGROUND_PATH};
+    public static final double[] BACKGROUND_PARALLAX = {0.5, 1.0};
     public static final String IDLE_SPRITE_PATH = "assets/players/naruto_idle.png";
     public static final String WALK_SPRITE_PATH = "assets/players/naruto_walk.png";
     public static final String ATTACK_SPRITE_PATH = "assets/players/naruto_attack.png";
     public static final String RASENGAN_SPRITE_PATH = "assets/players/rasengan.png";
     public static final String HIT_SPRITE_PATH = "assets/players/naruto_hit.png";
     public static final String JUMP_SPRITE_PATH = "assets/players/naruto_jump.png";
-    public static final String RASENGAN_SOUND_PATH = "assets/sfx/rasengan.wav";
+    public static final String START_SPRITE_PATH = "assets/players/naruto_start.png";
+    public static final String FOG_SPRITE_PATH = "assets/players/naruto_fog.png";
+    public static final String PLAYER_ATLAS = "naruto";
+    public static final String SPRITE_CACHE_DIR = "cache/sprites";
+    public static final String SOUND_CACHE_DIR = "cache/sounds";
+    public static final String SOUND_BANK_PATH = "assets/sfx/soundbank.properties";
     
     public static final int IDLE_FRAMES = 6;
     public static final int WALK_FRAMES = 6;
@@ -57,6 +97,8 @@ public class GameSettings {
     public static final int RASENGAN_FRAMES = 4;
     public static final int HIT_FRAMES = 7;
     public static final int JUMP_FRAMES = 6;
+    public static final int START_FRAMES = 3;
+    public static final int FOG_FRAMES = 2;
     
     public static final int IDLE_FRAME_WIDTH = 87;
     public static final int IDLE_FRAME_HEIGHT = 88;
@@ -70,6 +112,10 @@ public class GameSettings {
     public static final int HIT_FRAME_HEIGHT = 82;
     public static final int JUMP_FRAME_WIDTH = 89;
     public static final int JUMP_FRAME_HEIGHT = 90;
+    public static final int START_FRAME_WIDTH = 89;
+    public static final int START_FRAME_HEIGHT = 90;
+    public static final int FOG_FRAME_WIDTH = 81;
+    public static final int FOG_FRAME_HEIGHT = 66;
     
    
     public static final int JUMP_BOUNCE_UP = 100;
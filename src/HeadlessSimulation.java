@@ -0,0 +1,273 @@
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class HeadlessSimulation {
+
+    private static final int BOT_AIM_TOLERANCE = 30;
+
+    private static AnimationManager hitMasks;
+    private static boolean hitMasksLoaded = false;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("bombs")) {
+            benchmarkBombs(args.length > 1 ? Integer.parseInt(args[1]) : 10000,
+                    args.length > 2 ? Integer.parseInt(args[2]) : GameSettings.TICK_RATE * 60);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("versus")) {
+            versus(args.length > 1 ? Integer.parseInt(args[1]) : GameSettings.TICK_RATE * 60,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 0,
+                    args.length > 3 ? Integer.parseInt(args[3]) : 0,
+                    args.length > 4 ? Double.parseDouble(args[4]) / 100.0 : 0);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("record")) {
+            record(args[1], args.length > 2 ? Integer.parseInt(args[2]) : GameSettings.TICK_RATE * 300);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("replay")) {
+            replay(args[1]);
+            return;
+        }
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ticksPerMatch = args.length > 1 ? Integer.parseInt(args[1]) : GameSettings.TICK_RATE * 60;
+
+        getHitMasks();
+        long start = System.nanoTime();
+        long totalKills = 0;
+        for (int i = 0; i < matches; i++) {
+            totalKills += runMatch(ticksPerMatch).getBombKills();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%d matches x %d ticks (%s) in %.1f ms (%.0f matches/s, %.1f ns/tick), avg bomb kills %.2f%n",
+                matches, ticksPerMatch, getCollisionMode(), elapsed / 1e6, matches / seconds,
+                (double) elapsed / ((long) matches * ticksPerMatch), (double) totalKills / matches);
+    }
+
+    public static synchronized AnimationManager getHitMasks() {
+        if (!hitMasksLoaded) {
+            hitMasksLoaded = true;
+            AnimationManager manager = new AnimationManager();
+            manager.load(Animation.IDLE, Animation.HIT, Animation.RASENGAN).join();
+            if (manager.getHitMask(Animation.RASENGAN, 0, true) != null
+                    && manager.getHitMask(Animation.IDLE, 0, false) != null) {
+                hitMasks = manager;
+            }
+        }
+        return hitMasks;
+    }
+
+    private static String getCollisionMode() {
+        return getHitMasks() != null ? "pixel masks" : "attack range (hit masks unavailable)";
+    }
+
+    private static Match newMatch() {
+        Match match = new Match(SoundEvents.NONE);
+        match.setHitMasks(getHitMasks());
+        return match;
+    }
+
+    public static Match runMatch(int ticks) {
+        Match match = newMatch();
+        for (int i = 0; i < ticks; i++) {
+            match.setInput(botInput(match));
+            match.tick();
+        }
+        return match;
+    }
+
+    public static void record(String path, int ticks) {
+        try {
+            Match match = newMatch();
+            InputRecorder recorder = new InputRecorder(Paths.get(path));
+            match.setRecorder(recorder);
+            for (int i = 0; i < ticks; i++) {
+                match.setInput(botInput(match));
+                match.tick();
+            }
+            recorder.finish(match);
+            System.out.printf("Recorded %d ticks to %s (%s), bomb kills %d%n",
+                    ticks, path, getCollisionMode(), match.getBombKills());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void replay(String path) {
+        try {
+            Replay replay = Replay.read(Paths.get(path));
+            Match match = replay.createMatch(SoundEvents.NONE);
+            if (replay.hasHitMasks()) {
+                if (getHitMasks() == null) {
+                    throw new IllegalStateException("Replay needs hit masks but they could not be loaded");
+                }
+                match.setHitMasks(getHitMasks());
+            }
+
+            ReplayPlayer player = new ReplayPlayer(replay);
+            long start = System.nanoTime();
+            while (!player.isFinished(match)) {
+                player.apply(match);
+                match.tick();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("Replayed %d ticks (%d input events) in %.1f ms, bomb kills %d, final state %s%n",
+                    match.getTickCount(), replay.getEventCount(), elapsed / 1e6, match.getBombKills(),
+                    player.matchesRecording(match) ? "matches recording" : "DIVERGED from recording");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void versus(int ticks, int latencyMs, int jitterMs, double lossRate) {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (RollbackSession a = new RollbackSession(0, loopback, SoundEvents.NONE);
+             RollbackSession b = new RollbackSession(1, loopback, SoundEvents.NONE)) {
+            a.connect(b.getLocalAddress());
+            b.connect(a.getLocalAddress());
+            a.setSimulatedConditions(latencyMs, jitterMs, lossRate);
+            b.setSimulatedConditions(latencyMs, jitterMs, lossRate);
+
+            long now = 0;
+            while (a.getFrame() < ticks || b.getFrame() < ticks) {
+                now += GameSettings.TICK_NANOS;
+                for (RollbackSession session : new RollbackSession[] {a, b}) {
+                    if (session.getFrame() < ticks) {
+                        session.advance(now, versusBotInput(session.getMatch(), session.getLocalIndex()));
+                    } else {
+                        session.poll(now);
+                    }
+                }
+            }
+            while (a.getConfirmedFrame() < ticks - 1 || b.getConfirmedFrame() < ticks - 1) {
+                now += GameSettings.TICK_NANOS;
+                a.poll(now);
+                b.poll(now);
+            }
+
+            VersusMatch match = a.getMatch();
+            System.out.printf("Versus over loopback (%d ms latency, %d ms jitter, %.0f%% loss): %s%n",
+                    latencyMs, jitterMs, lossRate * 100, a.getStateHash(ticks) == b.getStateHash(ticks)
+                            ? "peers in sync" : "DESYNC");
+            System.out.printf("  health %d/%d, winner %d%n", match.getHealth(0), match.getHealth(1), match.getWinner());
+            System.out.println("  player 0: " + a.report());
+            System.out.println("  player 1: " + b.report());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        VersusMatch state = new VersusMatch(SoundEvents.NONE);
+        VersusMatch saved = new VersusMatch(SoundEvents.NONE);
+        int frames = GameSettings.NET_MAX_ROLLBACK_FRAMES;
+        int iterations = 20000;
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            saved.copyFrom(state);
+            long start = System.nanoTime();
+            state.copyFrom(saved);
+            for (int f = 0; f < frames; f++) {
+                state.tick(versusBotInput(state, 0), versusBotInput(state, 1));
+            }
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        System.out.printf("  %d-frame restore + resimulation: %.1f us p50, %.1f us p99 (tick budget %.1f ms)%n",
+                frames, times[iterations / 2] / 1e3, times[(int) (iterations * 0.99)] / 1e3,
+                GameSettings.TICK_NANOS / 1e6);
+    }
+
+    private static int versusBotInput(VersusMatch match, int index) {
+        Player self = match.getPlayer(index);
+        Player other = match.getPlayer(1 - index);
+        int dx = other.getCenterX() - self.getCenterX();
+        if (other.isShowRasengan() && Math.abs(dx) < GameSettings.ATTACK_RANGE && (match.getTickCount() + index) % 3 == 0) {
+            return Input.JUMP;
+        }
+        if (Math.abs(dx) < GameSettings.ATTACK_RANGE * 3 / 4 && (dx > 0) == self.isFacingRight()) {
+            return self.isAttacking() || self.canAttack(match.getTime()) ? Input.ATTACK : 0;
+        }
+        return dx > 0 ? Input.RIGHT : Input.LEFT;
+    }
+
+    public static void benchmarkBombs(int count, int ticks) {
+        runBombs(count, ticks, new long[ticks], new boolean[ticks]);
+        long[] times = new long[ticks];
+        boolean[] attacking = new boolean[ticks];
+        runBombs(count, ticks, times, attacking);
+
+        long total = 0;
+        long[] attackTimes = new long[ticks];
+        int attacks = 0;
+        for (int i = 0; i < ticks; i++) {
+            total += times[i];
+            if (attacking[i]) {
+                attackTimes[attacks++] = times[i];
+            }
+        }
+        Arrays.sort(times);
+        Arrays.sort(attackTimes, 0, attacks);
+
+        System.out.printf("%d bombs x %d ticks (%s): %.1f us/tick avg, %.1f us p50, %.1f us p99%n",
+                count, ticks, getCollisionMode(), total / 1e3 / ticks, times[ticks / 2] / 1e3,
+                times[(int) (ticks * 0.99)] / 1e3);
+        if (attacks > 0) {
+            System.out.printf("  %d attack ticks: %.1f us p50, %.1f us p99%n",
+                    attacks, attackTimes[attacks / 2] / 1e3, attackTimes[(int) (attacks * 0.99)] / 1e3);
+        }
+    }
+
+    private static void runBombs(int count, int ticks, long[] times, boolean[] attacking) {
+        Match match = newMatch();
+        BombStore bombs = new BombStore(SoundEvents.NONE, count);
+        bombs.setHitMasks(getHitMasks());
+        for (int i = 0; i < count; i++) {
+            bombs.spawn(0);
+        }
+
+        for (int i = 0; i < ticks; i++) {
+            match.setInput(botInput(match));
+            match.tick();
+            Player player = match.getPlayer();
+            attacking[i] = player.isAttacking() && player.isShowRasengan();
+            long start = System.nanoTime();
+            bombs.update(match.getTime(), player);
+            times[i] = System.nanoTime() - start;
+        }
+    }
+
+    private static int botInput(Match match) {
+        Player player = match.getPlayer();
+        Bomb bomb = match.getBomb();
+        if (bomb.isDead() || bomb.isDestroyed()) {
+            return 0;
+        }
+
+        int bombCenterX = bomb.getX() + 100;
+        if (!match.hasHitMasks()) {
+            int dx = bombCenterX - player.getCenterX();
+            if (Math.abs(dx) < GameSettings.ATTACK_RANGE / 2) {
+                return player.isAttacking() || player.canAttack(match.getTime()) ? Input.ATTACK : 0;
+            }
+            return dx > 0 ? Input.RIGHT : Input.LEFT;
+        }
+
+        boolean right = bombCenterX >= player.getCenterX();
+        int attackWidth = (int) (Animation.ATTACK.getFrameWidth() * player.getScale());
+        int rasenganCenterX = right
+                ? player.getX() + attackWidth - GameSettings.RASENGAN_OFFSET_X + GameSettings.RASENGAN_SIZE / 2
+                : player.getX() - GameSettings.RASENGAN_SIZE + GameSettings.RASENGAN_OFFSET_X + GameSettings.RASENGAN_SIZE / 2;
+        int dx = bombCenterX - rasenganCenterX;
+        if (Math.abs(dx) <= BOT_AIM_TOLERANCE && player.isFacingRight() == right) {
+            return player.isAttacking() || player.canAttack(match.getTime()) ? Input.ATTACK : 0;
+        }
+        if (Math.abs(dx) <= BOT_AIM_TOLERANCE) {
+            return right ? Input.RIGHT : Input.LEFT;
+        }
+        return dx > 0 ? Input.RIGHT : Input.LEFT;
+    }
+}
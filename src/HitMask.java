@@ -0,0 +1,146 @@
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+public class HitMask {
+
+    private static final int ALPHA_THRESHOLD = 128;
+
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final long[] bits;
+    private final int[] rowMinX;
+    private final int[] rowMaxX;
+    private int minX;
+    private int minY;
+    private int maxX = -1;
+    private int maxY = -1;
+    private int centerX;
+    private int centerY;
+    private int radius;
+
+    private HitMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = (width + 63) >>> 6;
+        this.bits = new long[stride * height];
+        this.rowMinX = new int[height];
+        this.rowMaxX = new int[height];
+        Arrays.fill(rowMinX, width);
+        Arrays.fill(rowMaxX, -1);
+        this.minX = width;
+        this.minY = height;
+    }
+
+    public static HitMask fromAlpha(BufferedImage frame, double scale, boolean mirrored) {
+        int sourceWidth = frame.getWidth();
+        int sourceHeight = frame.getHeight();
+        int width = Math.max(1, (int) (sourceWidth * scale));
+        int height = Math.max(1, (int) (sourceHeight * scale));
+        HitMask mask = new HitMask(width, height);
+
+        int[] row = new int[sourceWidth];
+        int[] columns = new int[width];
+        for (int x = 0; x < width; x++) {
+            int sx = Math.min(sourceWidth - 1, (int) ((x + 0.5) * sourceWidth / width));
+            columns[x] = mirrored ? sourceWidth - 1 - sx : sx;
+        }
+
+        int sourceRow = -1;
+        for (int y = 0; y < height; y++) {
+            int sy = Math.min(sourceHeight - 1, (int) ((y + 0.5) * sourceHeight / height));
+            if (sy != sourceRow) {
+                frame.getRGB(0, sy, sourceWidth, 1, row, 0, sourceWidth);
+                sourceRow = sy;
+            }
+            int base = y * mask.stride;
+            for (int x = 0; x < width; x++) {
+                if ((row[columns[x]] >>> 24) >= ALPHA_THRESHOLD) {
+                    mask.bits[base + (x >>> 6)] |= 1L << (x & 63);
+                    mask.rowMinX[y] = Math.min(mask.rowMinX[y], x);
+                    mask.rowMaxX[y] = x;
+                    mask.minX = Math.min(mask.minX, x);
+                    mask.maxX = Math.max(mask.maxX, x);
+                    mask.minY = Math.min(mask.minY, y);
+                    mask.maxY = y;
+                }
+            }
+        }
+        mask.computeRadius();
+        return mask;
+    }
+
+    private void computeRadius() {
+        centerX = (minX + maxX) / 2;
+        centerY = (minY + maxY) / 2;
+        long outer = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = rowMinX[y]; x <= rowMaxX[y]; x++) {
+                if ((bits[y * stride + (x >>> 6)] & (1L << (x & 63))) != 0) {
+                    long dx = x - centerX;
+                    long dy = y - centerY;
+                    outer = Math.max(outer, dx * dx + dy * dy);
+                }
+            }
+        }
+        radius = (int) Math.ceil(Math.sqrt(outer));
+    }
+
+    public static boolean overlaps(HitMask a, int ax, int ay, HitMask b, int bx, int by) {
+        int x0 = Math.max(ax + a.minX, bx + b.minX);
+        int x1 = Math.min(ax + a.maxX, bx + b.maxX) + 1;
+        int y0 = Math.max(ay + a.minY, by + b.minY);
+        int y1 = Math.min(ay + a.maxY, by + b.maxY) + 1;
+        if (x0 >= x1 || y0 >= y1) {
+            return false;
+        }
+
+        long dx = (ax + a.centerX) - (bx + b.centerX);
+        long dy = (ay + a.centerY) - (by + b.centerY);
+        long reach = a.radius + b.radius;
+        if (dx * dx + dy * dy > reach * reach) {
+            return false;
+        }
+
+        int middle = Math.max(y0, Math.min(y1 - 1, (ay + a.centerY + by + b.centerY) / 2));
+        for (int up = middle, down = middle + 1; up >= y0 || down < y1; up--, down++) {
+            if (up >= y0 && rowOverlaps(a, ax, ay, b, bx, by, up, x0, x1)) {
+                return true;
+            }
+            if (down < y1 && rowOverlaps(a, ax, ay, b, bx, by, down, x0, x1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean rowOverlaps(HitMask a, int ax, int ay, HitMask b, int bx, int by, int y, int x0, int x1) {
+        int yA = y - ay;
+        int yB = y - by;
+        x0 = Math.max(x0, Math.max(ax + a.rowMinX[yA], bx + b.rowMinX[yB]));
+        x1 = Math.min(x1, Math.min(ax + a.rowMaxX[yA], bx + b.rowMaxX[yB]) + 1);
+        int rowA = yA * a.stride;
+        int rowB = yB * b.stride;
+        for (int x = x0; x < x1; x += 64) {
+            int n = x1 - x;
+            long valid = n >= 64 ? -1L : (1L << n) - 1;
+            if ((a.word(rowA, x - ax) & b.word(rowB, x - bx) & valid) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long word(int row, int column) {
+        int index = column >>> 6;
+        int shift = column & 63;
+        long value = bits[row + index] >>> shift;
+        if (shift != 0 && index + 1 < stride) {
+            value |= bits[row + index + 1] << (64 - shift);
+        }
+        return value;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
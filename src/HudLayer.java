@@ -0,0 +1,172 @@
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+public class HudLayer {
+
+    private static final BasicStroke HEALTH_STROKE = new BasicStroke(3);
+    private static final BasicStroke ACTION_STROKE = new BasicStroke(2);
+    private static final int BAR_WIDTH = 400;
+    private static final int MARGIN = 2;
+
+    private final BarWidget playerHealth = new BarWidget(30, 10, BAR_WIDTH, 30, HEALTH_STROKE);
+    private final BarWidget bombHealth = new BarWidget(0, 10, BAR_WIDTH, 30, HEALTH_STROKE);
+    private final BarWidget actionBar = new BarWidget(30, 50, BAR_WIDTH, 20, ACTION_STROKE);
+    private final BarWidget[] widgets = {playerHealth, bombHealth, actionBar};
+
+    private BufferedImage overlay;
+    private boolean dirty = true;
+
+    public void update(RenderSnapshot snapshot, int screenWidth) {
+        dirty |= bombHealth.moveTo(screenWidth - BAR_WIDTH - 30);
+
+        dirty |= playerHealth.set(true, Color.RED, BAR_WIDTH);
+
+        if (snapshot.isBombDead()) {
+            long remainingTime = GameSettings.BOMB_SPAWN_DELAY - (snapshot.getTime() - snapshot.getBombLastSpawnTime());
+            int respawnWidth = remainingTime > 0
+                    ? (int)((double)(GameSettings.BOMB_SPAWN_DELAY - remainingTime) / GameSettings.BOMB_SPAWN_DELAY * BAR_WIDTH)
+                    : 0;
+            dirty |= bombHealth.set(true, Color.ORANGE, respawnWidth);
+        } else {
+            dirty |= bombHealth.set(true, Color.RED, snapshot.getBombSmoothHealthWidth());
+        }
+
+        if (!snapshot.canAttack()) {
+            long remainingTime = snapshot.getRemainingCooldown();
+            int currentWidth = (int)((double)(GameSettings.ATTACK_COOLDOWN - remainingTime) / GameSettings.ATTACK_COOLDOWN * BAR_WIDTH);
+            dirty |= actionBar.set(true, Color.ORANGE, currentWidth);
+        } else {
+            long remainingTime = snapshot.getRemainingAttackTime();
+            if (remainingTime > 0) {
+                int currentWidth = (int)((double)(GameSettings.MAX_ATTACK_DURATION - remainingTime) / GameSettings.MAX_ATTACK_DURATION * BAR_WIDTH);
+                dirty |= actionBar.set(true, Color.YELLOW, currentWidth);
+            } else {
+                dirty |= actionBar.set(false, null, 0);
+            }
+        }
+
+        if (overlay == null || overlay.getWidth() != screenWidth) {
+            dirty = true;
+        }
+    }
+
+    public void track(DirtyRegions regions, int firstSlot) {
+        for (int i = 0; i < widgets.length; i++) {
+            BarWidget widget = widgets[i];
+            if (widget.visible) {
+                regions.add(firstSlot + i, widget.version, widget.x - MARGIN, widget.y - MARGIN,
+                        widget.width + MARGIN * 2, widget.height + MARGIN * 2);
+            }
+        }
+    }
+
+    public void draw(Graphics2D g2d) {
+        if (dirty) {
+            composite(g2d.getDeviceConfiguration());
+            dirty = false;
+        }
+        g2d.drawImage(overlay, 0, 0, null);
+    }
+
+    private void composite(GraphicsConfiguration configuration) {
+        int width = Math.max(1, bombHealth.x + BAR_WIDTH + 30);
+        int height = 0;
+        for (BarWidget widget : widgets) {
+            height = Math.max(height, widget.y + widget.height + MARGIN);
+        }
+
+        if (overlay == null || overlay.getWidth() != width || overlay.getHeight() != height) {
+            overlay = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+
+        Graphics2D g2d = overlay.createGraphics();
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fillRect(0, 0, width, height);
+        g2d.setComposite(AlphaComposite.SrcOver);
+        for (BarWidget widget : widgets) {
+            if (widget.visible) {
+                g2d.drawImage(widget.getImage(configuration), widget.x - MARGIN, widget.y - MARGIN, null);
+            }
+        }
+        g2d.dispose();
+    }
+
+    private static class BarWidget {
+        private int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final BasicStroke stroke;
+
+        private boolean visible;
+        private Color fill;
+        private int fillWidth = -1;
+        private BufferedImage image;
+        private boolean stale = true;
+        private int version = 0;
+
+        private BarWidget(int x, int y, int width, int height, BasicStroke stroke) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.stroke = stroke;
+        }
+
+        private boolean moveTo(int x) {
+            if (this.x == x) {
+                return false;
+            }
+            this.x = x;
+            version++;
+            return true;
+        }
+
+        private boolean set(boolean visible, Color fill, int fillWidth) {
+            if (this.visible == visible && this.fill == fill && this.fillWidth == fillWidth) {
+                return false;
+            }
+            boolean changed = visible || this.visible;
+            this.visible = visible;
+            this.fill = fill;
+            this.fillWidth = fillWidth;
+            stale = true;
+            version++;
+            return changed;
+        }
+
+        private BufferedImage getImage(GraphicsConfiguration configuration) {
+            if (image == null) {
+                image = configuration.createCompatibleImage(width + MARGIN * 2, height + MARGIN * 2, Transparency.TRANSLUCENT);
+                stale = true;
+            }
+            if (stale) {
+                Graphics2D g2d = image.createGraphics();
+                g2d.setComposite(AlphaComposite.Clear);
+                g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+                g2d.setComposite(AlphaComposite.SrcOver);
+                g2d.translate(MARGIN, MARGIN);
+
+                g2d.setColor(Color.WHITE);
+                g2d.fillRect(0, 0, width, height);
+
+                if (fillWidth > 0) {
+                    g2d.setColor(fill);
+                    g2d.fillRect(0, 0, fillWidth, height);
+                }
+
+                g2d.setColor(Color.BLACK);
+                g2d.setStroke(stroke);
+                g2d.drawRect(0, 0, width, height);
+                g2d.dispose();
+                stale = false;
+            }
+            return image;
+        }
+    }
+}
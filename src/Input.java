@@ -0,0 +1,10 @@
+public class Input {
+
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int JUMP = 1 << 2;
+    public static final int ATTACK = 1 << 3;
+    public static final int ESCAPE = 1 << 4;
+
+    public static final int ALL = LEFT | RIGHT | JUMP | ATTACK | ESCAPE;
+}
@@ -0,0 +1,66 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InputQueue {
+
+    private final int[] keys;
+    private final boolean[] presses;
+    private final long[] stamps;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long cachedHead = 0;
+    private long dropped = 0;
+
+    private final FrameTimeStats latencyStats;
+
+    public InputQueue(int capacity, boolean reportLatency) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        keys = new int[size];
+        presses = new boolean[size];
+        stamps = new long[size];
+        mask = size - 1;
+        latencyStats = reportLatency ? new FrameTimeStats("input", "input-to-tick latency", "events") : null;
+    }
+
+    public boolean offer(int key, boolean pressed, long nanos) {
+        long position = tail.get();
+        if (position - cachedHead > mask) {
+            cachedHead = head.get();
+            if (position - cachedHead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int index = (int) (position & mask);
+        keys[index] = key;
+        presses[index] = pressed;
+        stamps[index] = nanos;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    public int drain(Match match, long nowNanos) {
+        long position = head.get();
+        long end = tail.get();
+        for (long i = position; i < end; i++) {
+            int index = (int) (i & mask);
+            if (match != null) {
+                if (presses[index]) {
+                    match.keyPressed(keys[index]);
+                } else {
+                    match.keyReleased(keys[index]);
+                }
+                if (latencyStats != null) {
+                    latencyStats.sample(nowNanos - stamps[index]);
+                }
+            }
+        }
+        head.lazySet(end);
+        return (int) (end - position);
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,33 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class InputRecorder {
+
+    private final Path path;
+    private final ByteArrayOutputStream events = new ByteArrayOutputStream(4096);
+    private long lastTick = 0;
+
+    public InputRecorder(Path path) {
+        this.path = path;
+    }
+
+    public void record(long tick, int key, boolean pressed) {
+        Replay.writeVarint(events, tick - lastTick);
+        events.write(Replay.keyCode(key, pressed));
+        lastTick = tick;
+    }
+
+    public void finish(Match match) throws IOException {
+        Replay.writeVarint(events, match.getTickCount() - lastTick);
+        events.write(Replay.END);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            Replay.writeHeader(out, match.getSeed(), match.hasHitMasks());
+            events.writeTo(out);
+            out.writeLong(match.getStateHash());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadTimings {
+
+    public enum Stage {
+        IO("io"),
+        DECODE("decode"),
+        CHROMA_KEY("chroma-key"),
+        SLICE("slice"),
+        SCALE("scale"),
+        PACK("pack"),
+        HIT_MASK("hit mask"),
+        AUDIO_OPEN("audio open"),
+        CACHE_READ("cache read"),
+        CACHE_WRITE("cache write");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final LongAdder[] totals = new LongAdder[Stage.values().length];
+    private static final ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+
+    static {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = new LongAdder();
+        }
+    }
+
+    public static void record(Stage stage, String asset, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        totals[stage.ordinal()].add(elapsed);
+        samples.add(new Sample(stage, asset, elapsed));
+    }
+
+    public static long getTotalNanos(Stage stage) {
+        return totals[stage.ordinal()].sum();
+    }
+
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(String.format("%s %.1f ms", stage.label, getTotalNanos(stage) / 1e6));
+        }
+        return sb.toString();
+    }
+
+    public static String report() {
+        List<Sample> snapshot = new ArrayList<>(samples);
+        StringBuilder sb = new StringBuilder();
+        for (Sample sample : snapshot) {
+            sb.append(String.format("%8.2f ms  %-10s  %s%n", sample.nanos / 1e6, sample.stage.label, sample.asset));
+        }
+        sb.append(summary()).append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    private static class Sample {
+        private final Stage stage;
+        private final String asset;
+        private final long nanos;
+
+        private Sample(Stage stage, String asset, long nanos) {
+            this.stage = stage;
+            this.asset = asset;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -8,6 +8,10 @@ import javax.swing.*;
 public class MainMenu extends JPanel implements KeyListener, MouseListener {
     private final Game game;
     private boolean showing = true;
+    private final TextLabel titleLabel = new TextLabel("Project-Shinobi-Battlegrounds", Font.BOLD, 64, Color.WHITE);
+    private final TextLabel instructionLabel = new TextLabel("Press SPACEBAR to Start", Font.PLAIN, 28, Color.WHITE);
+    private final TextLabel controlsLabel = new TextLabel("A/D - Move Left/Right  |  SPACE - Attack", Font.PLAIN, 18, Color.WHITE);
+    private final TextLabel subtitleLabel = new TextLabel("Fight the Bomb Enemy!", Font.PLAIN, 16, Color.WHITE);
     
     public MainMenu(Game game) {
         this.game = game;
@@ -23,39 +27,13 @@ public class MainMenu extends JPanel implements KeyListener, MouseListener {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         
-        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        
         int centerX = getWidth() / 2;
         int centerY = getHeight() / 2;
         
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 64));
-        FontMetrics titleMetrics = g2d.getFontMetrics();
-        String title = "Project-Shinobi-Battlegrounds";
-        int titleX = centerX - titleMetrics.stringWidth(title) / 2;
-        int titleY = centerY - 60;
-        g2d.drawString(title, titleX, titleY);
-        
-        g2d.setFont(new Font("Arial", Font.PLAIN, 28));
-        FontMetrics instructionMetrics = g2d.getFontMetrics();
-        String instruction = "Press SPACEBAR to Start";
-        int instructionX = centerX - instructionMetrics.stringWidth(instruction) / 2;
-        int instructionY = centerY + 20;
-        g2d.drawString(instruction, instructionX, instructionY);
-        
-        g2d.setFont(new Font("Arial", Font.PLAIN, 18));
-        FontMetrics controlsMetrics = g2d.getFontMetrics();
-        String controls = "A/D - Move Left/Right  |  SPACE - Attack";
-        int controlsX = centerX - controlsMetrics.stringWidth(controls) / 2;
-        int controlsY = centerY + 70;
-        g2d.drawString(controls, controlsX, controlsY);
-        
-        g2d.setFont(new Font("Arial", Font.PLAIN, 16));
-        FontMetrics subtitleMetrics = g2d.getFontMetrics();
-        String subtitle = "Fight the Bomb Enemy!";
-        int subtitleX = centerX - subtitleMetrics.stringWidth(subtitle) / 2;
-        int subtitleY = centerY + 100;
-        g2d.drawString(subtitle, subtitleX, subtitleY);
+        titleLabel.drawCentered(g2d, centerX, centerY - 60);
+        instructionLabel.drawCentered(g2d, centerX, centerY + 20);
+        controlsLabel.drawCentered(g2d, centerX, centerY + 70);
+        subtitleLabel.drawCentered(g2d, centerX, centerY + 100);
     }
     
     @Override
@@ -0,0 +1,97 @@
+import java.util.Random;
+
+public class Match {
+
+    private final Player player;
+    private final PlayerController controller;
+    private final BombStore bombs;
+    private final Bomb bomb;
+    private final SoundEvents sounds;
+    private final long seed;
+    private InputRecorder recorder;
+
+    private long tickCount = 0;
+    private long now = 0;
+    private boolean hasPlayedVsSound = false;
+    private boolean hasPlayedStartAnimation = false;
+    private boolean bombWasDead = false;
+    private int bombKills = 0;
+
+    public Match(SoundEvents sounds) {
+        this(sounds, new Random().nextLong());
+    }
+
+    public Match(SoundEvents sounds, long seed) {
+        this.sounds = sounds;
+        this.seed = seed;
+        this.player = new Player(sounds);
+        this.controller = new PlayerController(player);
+        this.controller.setInputListener((key, pressed) -> {
+            if (recorder != null) {
+                recorder.record(tickCount, key, pressed);
+            }
+        });
+        this.bombs = new BombStore(sounds, 1, seed);
+        this.bomb = new Bomb(bombs, bombs.spawn(now));
+    }
+
+    public void keyPressed(int key) {
+        controller.keyPressed(key, now);
+    }
+
+    public void keyReleased(int key) {
+        controller.keyReleased(key);
+    }
+
+    public void setInput(int keys) {
+        controller.setInput(keys, now);
+    }
+
+    public void tick() {
+        tickCount++;
+        now = tickCount * GameSettings.TICK_NANOS / 1000000;
+
+        controller.update(now);
+        bombs.update(now, player);
+
+        if (bomb.isDead() && !bombWasDead) {
+            bombKills++;
+        }
+        bombWasDead = bomb.isDead();
+
+        if (now >= GameSettings.VS_SOUND_DELAY && !hasPlayedVsSound) {
+            sounds.loop(SoundCue.VS);
+            hasPlayedVsSound = true;
+        }
+        if (now >= GameSettings.START_ANIMATION_DELAY && !hasPlayedStartAnimation) {
+            player.startGameAnimation();
+            sounds.play(SoundCue.BOMB_RESPAWN);
+            hasPlayedStartAnimation = true;
+        }
+    }
+
+    public void setHitMasks(AnimationManager hitMasks) {
+        bombs.setHitMasks(hitMasks);
+    }
+
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public long getStateHash() {
+        long hash = tickCount;
+        hash = hash * 31 + bombKills;
+        hash = hash * 31 + player.getStateHash();
+        return hash * 31 + bombs.getStateHash();
+    }
+
+    public Player getPlayer() { return player; }
+    public Bomb getBomb() { return bomb; }
+    public BombStore getBombs() { return bombs; }
+    public long getTime() { return now; }
+    public long getTickCount() { return tickCount; }
+    public long getSeed() { return seed; }
+    public boolean hasHitMasks() { return bombs.hasHitMasks(); }
+    public int getBombKills() { return bombKills; }
+    public boolean isIntroPlayed() { return hasPlayedStartAnimation; }
+}
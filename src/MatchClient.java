@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+public class MatchClient implements Runnable {
+
+    private static final int[] BOT_INPUTS = {0, Input.LEFT, Input.RIGHT, Input.JUMP, Input.ATTACK};
+
+    private final SocketChannel channel;
+    private final Random random = new Random();
+    private final ByteBuffer states = ByteBuffer.allocate(MatchRoom.STATE_SIZE * 64);
+    private final ByteBuffer input = ByteBuffer.allocate(1);
+
+    public MatchClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    @Override
+    public void run() {
+        int keys = 0;
+        try {
+            while (true) {
+                states.clear();
+                int read = channel.read(states);
+                if (read < 0) {
+                    return;
+                }
+
+                if (random.nextInt(20) == 0) {
+                    keys = BOT_INPUTS[random.nextInt(BOT_INPUTS.length)];
+                    input.clear();
+                    input.put((byte) keys).flip();
+                    channel.write(input);
+                }
+            }
+        } catch (IOException e) {
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    public static void launch(InetSocketAddress address, int clients) throws IOException {
+        for (int i = 0; i < clients; i++) {
+            MatchClient client = new MatchClient(address);
+            Thread.ofVirtual().name("match-client-" + i).start(client);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameSettings.SERVER_PORT;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        launch(new InetSocketAddress(host, port), clients);
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class MatchRoom implements Runnable {
+
+    static final int STATE_SIZE = 7 + VersusMatch.PLAYERS * 7;
+
+    private static final int FACING_RIGHT = 1;
+    private static final int ATTACKING = 1 << 1;
+    private static final int JUMPING = 1 << 2;
+    private static final int SHOW_RASENGAN = 1 << 3;
+
+    private final int id;
+    private final SocketChannel[] clients;
+    private final AtomicIntegerArray inputs = new AtomicIntegerArray(VersusMatch.PLAYERS);
+    private final ByteBuffer state = ByteBuffer.allocate(STATE_SIZE);
+    private final byte[] snapshot = new byte[STATE_SIZE];
+    private final Thread[] writers = new Thread[VersusMatch.PLAYERS];
+    private long snapshotSequence = 0;
+    private final FixedTimestep timestep = new FixedTimestep();
+    private volatile boolean running = true;
+
+    private VersusMatch match = new VersusMatch(SoundEvents.NONE);
+    private volatile int round = 1;
+    private int lastWinner = -1;
+    private volatile long ticks = 0;
+    private volatile long totalTickNanos = 0;
+    private final AtomicLong maxTickNanos = new AtomicLong();
+    private long lateTicks = 0;
+    private volatile long overruns = 0;
+
+    public MatchRoom(int id, SocketChannel first, SocketChannel second) {
+        this.id = id;
+        this.clients = new SocketChannel[] {first, second};
+    }
+
+    public void start() {
+        for (int i = 0; i < clients.length; i++) {
+            int index = i;
+            Thread.ofVirtual().name("match-" + id + "-input-" + i).start(() -> readInputs(index));
+            writers[i] = Thread.ofVirtual().name("match-" + id + "-output-" + i).start(() -> writeStates(index));
+        }
+        Thread.ofVirtual().name("match-" + id).start(this);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                int due = timestep.advance(System.nanoTime());
+                for (int i = 0; i < due && running; i++) {
+                    long start = System.nanoTime();
+                    tick();
+                    long elapsed = System.nanoTime() - start;
+                    totalTickNanos += elapsed;
+                    maxTickNanos.accumulateAndGet(elapsed, Math::max);
+                    ticks++;
+                }
+                if (due > 1) {
+                    lateTicks += due - 1;
+                }
+                overruns = lateTicks + timestep.getDroppedTicks();
+                LockSupport.parkNanos(timestep.getNanosUntilNextTick());
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void tick() {
+        if (match.getWinner() >= 0) {
+            lastWinner = match.getWinner();
+            match = new VersusMatch(SoundEvents.NONE);
+            round++;
+        }
+        match.tick(inputs.get(0), inputs.get(1));
+
+        state.clear();
+        state.putInt((int) match.getTickCount()).put((byte) round).put((byte) match.getWinner())
+                .put((byte) lastWinner);
+        for (int i = 0; i < VersusMatch.PLAYERS; i++) {
+            Player player = match.getPlayer(i);
+            int flags = (player.isFacingRight() ? FACING_RIGHT : 0) | (player.isAttacking() ? ATTACKING : 0)
+                    | (player.isJumping() ? JUMPING : 0) | (player.isShowRasengan() ? SHOW_RASENGAN : 0);
+            state.putShort((short) player.getX()).putShort((short) player.getY())
+                    .putShort((short) match.getHealth(i)).put((byte) flags);
+        }
+        state.flip();
+        synchronized (snapshot) {
+            state.get(snapshot);
+            snapshotSequence++;
+        }
+        for (Thread writer : writers) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeStates(int index) {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_SIZE).limit(0);
+        long sent = 0;
+        try {
+            while (running) {
+                synchronized (snapshot) {
+                    if (snapshotSequence != sent) {
+                        buffer.clear();
+                        buffer.put(snapshot).flip();
+                        sent = snapshotSequence;
+                    }
+                }
+                if (!buffer.hasRemaining()) {
+                    LockSupport.park();
+                    continue;
+                }
+                while (buffer.hasRemaining()) {
+                    clients[index].write(buffer);
+                }
+            }
+        } catch (IOException e) {
+        } finally {
+            close();
+        }
+    }
+
+    private void readInputs(int index) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        try {
+            while (running) {
+                buffer.clear();
+                if (clients[index].read(buffer) < 0) {
+                    break;
+                }
+                if (buffer.position() > 0) {
+                    inputs.lazySet(index, buffer.get(buffer.position() - 1) & Input.ALL);
+                }
+            }
+        } catch (IOException e) {
+        } finally {
+            close();
+        }
+    }
+
+    public void close() {
+        running = false;
+        for (Thread writer : writers) {
+            LockSupport.unpark(writer);
+        }
+        for (SocketChannel client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    public int getId() { return id; }
+    public boolean isRunning() { return running; }
+    public int getRound() { return round; }
+    public long getTicks() { return ticks; }
+    public long getTotalTickNanos() { return totalTickNanos; }
+    public long takeMaxTickNanos() { return maxTickNanos.getAndSet(0); }
+    public long getOverruns() { return overruns; }
+}
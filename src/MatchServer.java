@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MatchServer implements Runnable {
+
+    private final ServerSocketChannel server;
+    private final Set<MatchRoom> rooms = ConcurrentHashMap.newKeySet();
+    private final Map<MatchRoom, long[]> reported = new HashMap<>();
+    private volatile boolean running = true;
+    private int nextId = 1;
+
+    public MatchServer(InetSocketAddress address) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(address, GameSettings.SERVER_BACKLOG);
+    }
+
+    public void start() {
+        Thread.ofVirtual().name("match-server-accept").start(this);
+        Thread.ofPlatform().daemon().name("match-server-report").start(this::reportLoop);
+    }
+
+    @Override
+    public void run() {
+        SocketChannel waiting = null;
+        while (running) {
+            try {
+                SocketChannel client = server.accept();
+                client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                if (waiting == null || !isConnected(waiting)) {
+                    waiting = client;
+                    continue;
+                }
+                MatchRoom room = new MatchRoom(nextId++, waiting, client);
+                rooms.add(room);
+                room.start();
+                waiting = null;
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static boolean isConnected(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            int read = channel.read(ByteBuffer.allocate(64));
+            channel.configureBlocking(true);
+            if (read >= 0) {
+                return true;
+            }
+        } catch (IOException e) {
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+        }
+        return false;
+    }
+
+    private void reportLoop() {
+        while (running) {
+            try {
+                Thread.sleep(GameSettings.SERVER_REPORT_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.print(report());
+        }
+    }
+
+    public synchronized String report() {
+        rooms.removeIf(room -> !room.isRunning());
+        reported.keySet().retainAll(rooms);
+
+        List<long[]> stats = new ArrayList<>();
+        long ticks = 0;
+        long overruns = 0;
+        int overrunMatches = 0;
+        for (MatchRoom room : rooms) {
+            long[] last = reported.computeIfAbsent(room, r -> new long[3]);
+            long roomTicks = room.getTicks() - last[0];
+            long roomNanos = room.getTotalTickNanos() - last[1];
+            long roomOverruns = room.getOverruns() - last[2];
+            last[0] = room.getTicks();
+            last[1] = room.getTotalTickNanos();
+            last[2] = room.getOverruns();
+            if (roomTicks > 0) {
+                stats.add(new long[] {roomNanos / roomTicks, room.getId(), roomTicks, roomOverruns, room.takeMaxTickNanos(), room.getRound()});
+            }
+            ticks += roomTicks;
+            overruns += roomOverruns;
+            if (roomOverruns > 0) {
+                overrunMatches++;
+            }
+        }
+        if (stats.isEmpty()) {
+            return String.format("[server] %d matches, no ticks%n", rooms.size());
+        }
+        stats.sort((a, b) -> Long.compare(b[0], a[0]));
+
+        double seconds = GameSettings.SERVER_REPORT_INTERVAL / 1000.0;
+        StringBuilder report = new StringBuilder(String.format(
+                "[server] %d matches, %.1f ticks/s per match, tick time p50 %.1f us, p99 %.1f us, overrun ticks %d in %d matches%n",
+                rooms.size(), ticks / seconds / stats.size(), stats.get(stats.size() / 2)[0] / 1e3,
+                stats.get(stats.size() / 100)[0] / 1e3, overruns, overrunMatches));
+        for (int i = 0; i < Math.min(3, stats.size()); i++) {
+            long[] match = stats.get(i);
+            report.append(String.format("  match %d (round %d): %d ticks, avg %.1f us, max %.1f us, overruns %d%n",
+                    match[1], match[5], match[2], match[0] / 1e3, match[4] / 1e3, match[3]));
+        }
+        return report.toString();
+    }
+
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    public int getMatchCount() {
+        return rooms.size();
+    }
+
+    public void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+        }
+        for (MatchRoom room : rooms) {
+            room.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--loopback")) {
+            int matches = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+            int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+            MatchServer server = new MatchServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.start();
+            MatchClient.launch(server.getLocalAddress(), matches * 2);
+            Thread.sleep(seconds * 1000L);
+            server.close();
+            return;
+        }
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : GameSettings.SERVER_PORT;
+        MatchServer server = new MatchServer(new InetSocketAddress(port));
+        server.start();
+        System.out.println("Match server listening on " + server.getLocalAddress());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MusicStream implements AutoCloseable {
+
+    private final String path;
+    private final FileChannel channel;
+    private final int channels;
+    private final long dataStart;
+    private final long dataEnd;
+    private final double step;
+
+    private final short[] ring;
+    private final int ringFrames;
+    private volatile long writeFrames = 0;
+    private volatile long readFrames = 0;
+    private volatile long rewindFrames = 0;
+    private volatile int requestedGeneration = 0;
+    private volatile int generation = 0;
+
+    private final ByteBuffer chunk;
+    private long filePosition;
+    private double phase = 0;
+    private int previousLeft;
+    private int previousRight;
+
+    public MusicStream(String path, float sampleRate) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) {
+                throw new IOException("Not a WAV file: " + path);
+            }
+
+            int formatChannels = 0;
+            int formatRate = 0;
+            int formatBits = 0;
+            long position = 12;
+            long start = -1;
+            long length = 0;
+            ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            while (start < 0 && position + 8 <= channel.size()) {
+                chunkHeader.clear();
+                readFully(chunkHeader, position);
+                int id = chunkHeader.getInt(0);
+                long size = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+                if (id == 0x20746d66) {
+                    ByteBuffer format = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+                    readFully(format, position + 8);
+                    if (format.getShort(0) != 1) {
+                        throw new IOException("Unsupported WAV encoding: " + path);
+                    }
+                    formatChannels = format.getShort(2);
+                    formatRate = format.getInt(4);
+                    formatBits = format.getShort(14);
+                } else if (id == 0x61746164) {
+                    start = position + 8;
+                    length = Math.min(size, channel.size() - start);
+                }
+                position += 8 + size + (size & 1);
+            }
+            if (start < 0 || formatBits != 16 || formatChannels < 1 || formatRate <= 0) {
+                throw new IOException("Unsupported WAV format: " + path);
+            }
+
+            this.channels = formatChannels;
+            this.dataStart = start;
+            this.dataEnd = start + length - length % (formatChannels * 2);
+            this.step = formatRate / (double) sampleRate;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        ringFrames = GameSettings.MUSIC_BUFFER_FRAMES;
+        ring = new short[ringFrames * 2];
+        chunk = ByteBuffer.allocateDirect(GameSettings.MUSIC_CHUNK_FRAMES * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+        filePosition = dataStart;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated WAV file: " + path);
+            }
+        }
+    }
+
+    public void fill() throws IOException {
+        int requested = requestedGeneration;
+        if (requested != generation) {
+            filePosition = dataStart;
+            phase = 0;
+            rewindFrames = writeFrames;
+            generation = requested;
+        }
+        if (dataEnd <= dataStart) {
+            return;
+        }
+
+        int maxOutput = (int) Math.ceil(GameSettings.MUSIC_CHUNK_FRAMES / step) + 1;
+        while (ringFrames - (writeFrames - Math.max(readFrames, rewindFrames)) >= maxOutput) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), dataEnd - filePosition));
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, filePosition + chunk.position()) < 0) {
+                    break;
+                }
+            }
+            int frames = chunk.position() / (channels * 2);
+            filePosition += (long) frames * channels * 2;
+            if (filePosition >= dataEnd) {
+                filePosition = dataStart;
+            }
+            if (frames == 0) {
+                return;
+            }
+            resample(frames);
+        }
+    }
+
+    private void resample(int frames) {
+        long write = writeFrames;
+        int frameBytes = channels * 2;
+        while (phase + 1 < frames) {
+            int index = (int) Math.floor(phase);
+            double t = phase - index;
+            int left0 = index < 0 ? previousLeft : chunk.getShort(index * frameBytes);
+            int right0 = index < 0 ? previousRight : chunk.getShort(index * frameBytes + (channels > 1 ? 2 : 0));
+            int left1 = chunk.getShort((index + 1) * frameBytes);
+            int right1 = chunk.getShort((index + 1) * frameBytes + (channels > 1 ? 2 : 0));
+            int slot = (int) (write % ringFrames) * 2;
+            ring[slot] = (short) Math.round(left0 + (left1 - left0) * t);
+            ring[slot + 1] = (short) Math.round(right0 + (right1 - right0) * t);
+            write++;
+            phase += step;
+        }
+        phase -= frames;
+        previousLeft = chunk.getShort((frames - 1) * frameBytes);
+        previousRight = chunk.getShort((frames - 1) * frameBytes + (channels > 1 ? 2 : 0));
+        writeFrames = write;
+    }
+
+    public void requestRewind() {
+        requestedGeneration++;
+    }
+
+    public void mix(int[] out, int frames, int gainStart, int gainEnd, int gainShift) {
+        if (generation != requestedGeneration) {
+            return;
+        }
+        long read = Math.max(readFrames, rewindFrames);
+        int count = (int) Math.min(frames, writeFrames - read);
+        for (int i = 0; i < count; i++) {
+            int gain = gainStart + (gainEnd - gainStart) * i / frames;
+            int slot = (int) ((read + i) % ringFrames) * 2;
+            out[i * 2] += (ring[slot] * gain) >> gainShift;
+            out[i * 2 + 1] += (ring[slot + 1] * gain) >> gainShift;
+        }
+        readFrames = read + count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
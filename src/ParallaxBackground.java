@@ -0,0 +1,136 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ParallaxBackground {
+
+    private final String[] paths;
+    private final double[] factors;
+    private final BufferedImage[] layers;
+    private final boolean[] opaqueLayers;
+    private volatile int loadedVersion = 0;
+
+    private final List<Strip> strips = new ArrayList<>();
+    private int builtVersion = -1;
+    private int builtWidth;
+    private int builtHeight;
+
+    public ParallaxBackground(String[] paths, double[] factors) {
+        this.paths = paths;
+        this.factors = factors;
+        this.layers = new BufferedImage[paths.length];
+        this.opaqueLayers = new boolean[paths.length];
+    }
+
+    public void load() {
+        for (int i = 0; i < paths.length; i++) {
+            try {
+                BufferedImage layer = AssetRegistry.acquireImage(paths[i]);
+                opaqueLayers[i] = isOpaque(layer);
+                layers[i] = layer;
+                loadedVersion++;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public int getVersion() {
+        return loadedVersion;
+    }
+
+    public void draw(Graphics2D g2d, VolatileImageCache imageCache, int scrollX, int width, int height) {
+        GraphicsConfiguration configuration = g2d.getDeviceConfiguration();
+        if (builtVersion != loadedVersion || builtWidth != width || builtHeight != height) {
+            build(configuration, imageCache, width, height);
+        }
+
+        for (int i = 0; i < strips.size(); i++) {
+            Strip strip = strips.get(i);
+            Image image = imageCache != null ? imageCache.get(strip.image, configuration) : strip.image;
+            int offset = Math.floorMod((int) Math.round(scrollX * strip.factor), width);
+            if (offset == 0) {
+                g2d.drawImage(image, 0, 0, null);
+            } else {
+                g2d.drawImage(image, 0, 0, width - offset, height, offset, 0, width, height, null);
+                g2d.drawImage(image, width - offset, 0, width, height, 0, 0, offset, height, null);
+            }
+        }
+    }
+
+    private void build(GraphicsConfiguration configuration, VolatileImageCache imageCache, int width, int height) {
+        for (Strip strip : strips) {
+            if (imageCache != null) {
+                imageCache.evict(strip.image);
+            }
+            strip.image.flush();
+        }
+        strips.clear();
+
+        int bottom = 0;
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] != null && opaqueLayers[i]) {
+                bottom = i;
+            }
+        }
+
+        Strip current = null;
+        for (int i = bottom; i < layers.length; i++) {
+            BufferedImage layer = layers[i];
+            if (layer == null) {
+                continue;
+            }
+            if (current == null || current.factor != factors[i]) {
+                int transparency = strips.isEmpty() || opaqueLayers[i] ? Transparency.OPAQUE : Transparency.TRANSLUCENT;
+                current = new Strip(factors[i], createImage(configuration, width, height, transparency));
+                strips.add(current);
+            }
+            Graphics2D g2d = current.image.createGraphics();
+            g2d.drawImage(layer, 0, 0, width, height, null);
+            g2d.dispose();
+        }
+
+        builtVersion = loadedVersion;
+        builtWidth = width;
+        builtHeight = height;
+    }
+
+    private static boolean isOpaque(BufferedImage image) {
+        if (image.getTransparency() == Transparency.OPAQUE) {
+            return true;
+        }
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                if ((argb >>> 24) != 0xFF) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static BufferedImage createImage(GraphicsConfiguration configuration, int width, int height, int transparency) {
+        if (configuration != null) {
+            return configuration.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static class Strip {
+        private final double factor;
+        private final BufferedImage image;
+
+        private Strip(double factor, BufferedImage image) {
+            this.factor = factor;
+            this.image = image;
+        }
+    }
+}
@@ -1,10 +1,9 @@
-import java.awt.image.BufferedImage;
-import javax.sound.sampled.*;
-
 public class Player {
 
     private int x;
     private int y;
+    private int prevX;
+    private int prevY;
     private final int speed;
     private final double scale;
 
@@ -20,8 +19,8 @@ public class Player {
     private int jumpOffsetX = 0;
     private int jumpOffsetY = 0;
 
-    private long lastAttackTime = 0;
-    private long lastJumpTime = 0;
+    private long lastAttackTime = -GameSettings.ATTACK_COOLDOWN;
+    private long lastJumpTime = -GameSettings.JUMP_COOLDOWN;
     private long attackStartTime = 0;
     private int attackFrame = 0;
     private int rasenganFrame = 0;
@@ -36,44 +35,78 @@ public class Player {
     private boolean isPlayingStartAnimation = false;
     private boolean startAnimationComplete = false;
 
-    private Clip rasenganSound;
     private boolean soundPlaying = false;
-    private Clip footstepsSound;
     private boolean footstepsPlaying = false;
 
-    private final AnimationManager animationManager;
+    private final SoundEvents sounds;
+
+    public Player(SoundEvents sounds) {
+        this(sounds, GameSettings.PLAYER_START_X, true);
+    }
 
-    public Player(AnimationManager animationManager) {
-        this.animationManager = animationManager;
-        this.x = GameSettings.PLAYER_START_X;
+    public Player(SoundEvents sounds, int startX, boolean facingRight) {
+        this.sounds = sounds;
+        this.x = startX;
         this.y = GameSettings.PLAYER_START_Y;
+        this.facingRight = facingRight;
+        this.prevX = x;
+        this.prevY = y;
         this.speed = GameSettings.PLAYER_SPEED;
         this.scale = GameSettings.PLAYER_SCALE;
-
-        loadSound();
     }
 
-    private void loadSound() {
-        try {
-            java.io.File soundFile = new java.io.File(GameSettings.RASENGAN_SOUND_PATH);
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundFile);
-            rasenganSound = AudioSystem.getClip();
-            rasenganSound.open(audioInputStream);
-
-            java.io.File footstepsFile = new java.io.File("assets/sfx/footsteps.wav");
-            AudioInputStream footstepsStream = AudioSystem.getAudioInputStream(footstepsFile);
-            footstepsSound = AudioSystem.getClip();
-            footstepsSound.open(footstepsStream);
-            FloatControl volumeControl = (FloatControl) footstepsSound.getControl(FloatControl.Type.MASTER_GAIN);
-            float volume = -5.0f;
-            volumeControl.setValue(volume);
-        } catch (Exception e) {
-        }
+    public void copyFrom(Player other) {
+        x = other.x;
+        y = other.y;
+        prevX = other.prevX;
+        prevY = other.prevY;
+        movingLeft = other.movingLeft;
+        movingRight = other.movingRight;
+        facingRight = other.facingRight;
+        isAttacking = other.isAttacking;
+        showRasengan = other.showRasengan;
+        isHoldingAttack = other.isHoldingAttack;
+        isJumping = other.isJumping;
+        originalX = other.originalX;
+        originalY = other.originalY;
+        jumpOffsetX = other.jumpOffsetX;
+        jumpOffsetY = other.jumpOffsetY;
+        lastAttackTime = other.lastAttackTime;
+        lastJumpTime = other.lastJumpTime;
+        attackStartTime = other.attackStartTime;
+        attackFrame = other.attackFrame;
+        rasenganFrame = other.rasenganFrame;
+        lastRasenganTime = other.lastRasenganTime;
+        idleFrame = other.idleFrame;
+        walkFrame = other.walkFrame;
+        jumpFrame = other.jumpFrame;
+        lastIdleTime = other.lastIdleTime;
+        lastWalkTime = other.lastWalkTime;
+        startFrame = other.startFrame;
+        lastStartTime = other.lastStartTime;
+        isPlayingStartAnimation = other.isPlayingStartAnimation;
+        startAnimationComplete = other.startAnimationComplete;
+        soundPlaying = other.soundPlaying;
+        footstepsPlaying = other.footstepsPlaying;
+    }
+
+    public long getStateHash() {
+        long hash = x;
+        hash = hash * 31 + y;
+        hash = hash * 31 + getFrameIndex();
+        hash = hash * 31 + (facingRight ? 1 : 0);
+        hash = hash * 31 + (isAttacking ? 1 : 0);
+        hash = hash * 31 + (isJumping ? 1 : 0);
+        hash = hash * 31 + (showRasengan ? getRasenganFrameIndex() : -1);
+        hash = hash * 31 + lastAttackTime;
+        return hash * 31 + lastJumpTime;
     }
 
     public void update(long now, boolean isAttacking, boolean movingLeft, boolean movingRight) {
         this.movingLeft = movingLeft;
         this.movingRight = movingRight;
+        prevX = x;
+        prevY = y;
 
         if (isAttacking) {
             updateAttack(now);
@@ -91,11 +124,11 @@ public class Player {
         } else {
             if (now - lastAttackTime >= GameSettings.ANIMATION_ATTACK_DELAY) {
                 attackFrame++;
-                if (attackFrame >= animationManager.getAttackFrames().length) {
+                if (attackFrame >= Animation.ATTACK.getFrames()) {
                     if (!isHoldingAttack) {
                         stopAttack(now);
                     } else {
-                        attackFrame = animationManager.getAttackFrames().length - 1;
+                        attackFrame = Animation.ATTACK.getFrames() - 1;
                     }
                 }
                 lastAttackTime = now;
@@ -103,7 +136,7 @@ public class Player {
 
             if (showRasengan) {
                 if (now - lastRasenganTime >= GameSettings.ANIMATION_RASENGAN_DELAY) {
-                    rasenganFrame = (rasenganFrame + 1) % animationManager.getRasenganFrames().length;
+                    rasenganFrame = (rasenganFrame + 1) % Animation.RASENGAN.getFrames();
                     lastRasenganTime = now;
                 }
             }
@@ -115,7 +148,7 @@ public class Player {
             jumpFrame++;
             lastJumpTime = now;
             
-            if (jumpFrame < animationManager.getJumpFrames().length) {
+            if (jumpFrame < Animation.JUMP.getFrames()) {
                 jumpOffsetY = -GameSettings.JUMP_BOUNCE_UP + (jumpFrame * GameSettings.JUMP_BOUNCE_UP_STEP);
                 jumpOffsetX = -GameSettings.JUMP_BOUNCE_BACK + (jumpFrame * GameSettings.JUMP_BOUNCE_BACK_STEP);
                 
@@ -123,7 +156,7 @@ public class Player {
                 y = originalY + jumpOffsetY;
             }
             
-            if (jumpFrame >= animationManager.getJumpFrames().length) {
+            if (jumpFrame >= Animation.JUMP.getFrames()) {
                 stopJump(now);
             }
         }
@@ -138,7 +171,7 @@ public class Player {
         }
         if (movingRight) {
             x += speed;
-            int maxX = GameSettings.WINDOW_SIZE.width - getDrawWidth();
+            int maxX = GameSettings.WINDOW_WIDTH - getDrawWidth();
             if (x > maxX) {
                 x = maxX;
             }
@@ -148,13 +181,13 @@ public class Player {
         if (isMoving) {
             playFootstepsSound();
             if (now - lastWalkTime >= GameSettings.ANIMATION_WALK_DELAY) {
-                walkFrame = (walkFrame + 1) % animationManager.getWalkFrames().length;
+                walkFrame = (walkFrame + 1) % Animation.WALK.getFrames();
                 lastWalkTime = now;
             }
         } else {
             stopFootstepsSound();
             if (now - lastIdleTime >= GameSettings.ANIMATION_IDLE_DELAY) {
-                idleFrame = (idleFrame + 1) % animationManager.getIdleFrames().length;
+                idleFrame = (idleFrame + 1) % Animation.IDLE.getFrames();
                 lastIdleTime = now;
             }
         }
@@ -216,89 +249,77 @@ public class Player {
     }
 
     private void playRasenganSound() {
-        if (rasenganSound != null && !soundPlaying) {
-            try {
-                rasenganSound.setFramePosition(0);
-                rasenganSound.start();
-                soundPlaying = true;
-            } catch (Exception e) {
-            }
+        if (!soundPlaying) {
+            sounds.play(SoundCue.RASENGAN);
+            soundPlaying = true;
         }
     }
 
     private void stopRasenganSound() {
-        if (rasenganSound != null && soundPlaying) {
-            try {
-                rasenganSound.stop();
-                soundPlaying = false;
-            } catch (Exception e) {
-            }
+        if (soundPlaying) {
+            sounds.stop(SoundCue.RASENGAN);
+            soundPlaying = false;
         }
     }
 
     private void playFootstepsSound() {
-        if (footstepsSound != null && !footstepsPlaying) {
-            try {
-                footstepsSound.setFramePosition(0);
-                footstepsSound.loop(Clip.LOOP_CONTINUOUSLY);
-                footstepsPlaying = true;
-            } catch (Exception e) {
-            }
+        if (!footstepsPlaying) {
+            sounds.loop(SoundCue.FOOTSTEPS);
+            footstepsPlaying = true;
         }
     }
 
     private void stopFootstepsSound() {
-        if (footstepsSound != null && footstepsPlaying) {
-            try {
-                footstepsSound.stop();
-                footstepsPlaying = false;
-            } catch (Exception e) {
-            }
+        if (footstepsPlaying) {
+            sounds.stop(SoundCue.FOOTSTEPS);
+            footstepsPlaying = false;
         }
     }
 
-    public BufferedImage getCurrentFrame() {
+    public Animation getAnimation() {
         if (isAttacking) {
-            BufferedImage[] frames = animationManager.getAttackFrames();
-            if (frames != null && frames.length > 0) {
-                return frames[attackFrame % frames.length];
-            }
+            return Animation.ATTACK;
         } else if (isJumping) {
-            BufferedImage[] frames = animationManager.getJumpFrames();
-            if (frames != null && frames.length > 0) {
-                return frames[jumpFrame % frames.length];
-            }
-        } else {
-            boolean isMoving = movingLeft || movingRight;
-            if (isMoving) {
-                BufferedImage[] frames = animationManager.getWalkFrames();
-                if (frames != null && frames.length > 0) {
-                    return frames[walkFrame % frames.length];
-                }
-            } else {
-                BufferedImage[] frames = animationManager.getIdleFrames();
-                if (frames != null && frames.length > 0) {
-                    return frames[idleFrame % frames.length];
-                }
-            }
+            return Animation.JUMP;
+        } else if (movingLeft || movingRight) {
+            return Animation.WALK;
         }
-        return null;
+        return Animation.IDLE;
     }
 
-    public BufferedImage getRasenganFrame() {
-        BufferedImage[] frames = animationManager.getRasenganFrames();
-        if (frames != null && frames.length > 0) {
-            return frames[rasenganFrame % frames.length];
+    public int getFrameIndex() {
+        if (isAttacking) {
+            return attackFrame % Animation.ATTACK.getFrames();
+        } else if (isJumping) {
+            return jumpFrame % Animation.JUMP.getFrames();
+        } else if (movingLeft || movingRight) {
+            return walkFrame % Animation.WALK.getFrames();
         }
-        return null;
+        return idleFrame % Animation.IDLE.getFrames();
+    }
+
+    public int getRasenganFrameIndex() {
+        return rasenganFrame % Animation.RASENGAN.getFrames();
+    }
+
+    public int getFrameHandle() {
+        return TextureAtlas.getHandle(getAnimation(), getFrameIndex());
+    }
+
+    public int getRasenganHandle() {
+        return TextureAtlas.getHandle(Animation.RASENGAN, rasenganFrame);
+    }
+
+    public int getStartHandle() {
+        return TextureAtlas.getHandle(Animation.START, startFrame);
     }
 
     public int getDrawWidth() {
-        return (int) (getCurrentFrame().getWidth() * scale);
+        return (int) (getAnimation().getFrameWidth() * scale);
     }
 
     public int getDrawHeight() {
-        return (int) (getCurrentFrame().getHeight() * scale);
+        return (int) (getAnimation().getFrameHeight() * scale);
     }
 
     public int getCenterX() {
@@ -341,12 +362,22 @@ public class Player {
         this.facingRight = facingRight;
     }
 
+    public int getRenderX(double alpha) {
+        return prevX + (int) Math.round((x - prevX) * alpha);
+    }
+
+    public int getRenderY(double alpha) {
+        return prevY + (int) Math.round((y - prevY) * alpha);
+    }
+
     public int getX() { return x; }
     public int getY() { return y; }
     public boolean isAttacking() { return isAttacking; }
     public boolean isJumping() { return isJumping; }
     public boolean isShowRasengan() { return showRasengan; }
     public boolean isFacingRight() { return facingRight; }
+    public boolean isSoundPlaying() { return soundPlaying; }
+    public boolean isFootstepsPlaying() { return footstepsPlaying; }
     public double getScale() { return scale; }
 
     public void startGameAnimation() {
@@ -358,9 +389,9 @@ public class Player {
 
     public void updateStartAnimation(long now) {
         if (isPlayingStartAnimation && !startAnimationComplete) {
-            if (now - lastStartTime >= 100) {
+            if (now - lastStartTime >= GameSettings.ANIMATION_START_DELAY) {
                 startFrame++;
-                if (animationManager.getStartFrames() != null && startFrame >= animationManager.getStartFrames().length) {
+                if (startFrame >= Animation.START.getFrames()) {
                     startAnimationComplete = true;
                     isPlayingStartAnimation = false;
                 }
@@ -377,11 +408,7 @@ public class Player {
         return startAnimationComplete;
     }
 
-    public BufferedImage getCurrentStartFrame() {
-        if (isPlayingStartAnimation && animationManager.getStartFrames() != null) {
-            int safeFrame = startFrame % animationManager.getStartFrames().length;
-            return animationManager.getStartFrames()[safeFrame];
-        }
-        return null;
+    public int getStartFrameIndex() {
+        return startFrame % Animation.START.getFrames();
     }
 }
@@ -0,0 +1,107 @@
+public class PlayerController {
+
+    public interface InputListener {
+        void onKey(int key, boolean pressed);
+    }
+
+    private final Player player;
+    private InputListener inputListener;
+    private boolean movingLeft = false;
+    private boolean movingRight = false;
+    private int heldKeys = 0;
+
+    public PlayerController(Player player) {
+        this.player = player;
+    }
+
+    public void keyPressed(int key, long now) {
+        if (inputListener != null) {
+            inputListener.onKey(key, true);
+        }
+        if (!player.isAttacking() && !player.isJumping()) {
+            if (key == Input.LEFT) {
+                movingLeft = true;
+                player.setFacingRight(false);
+            }
+            if (key == Input.RIGHT) {
+                movingRight = true;
+                player.setFacingRight(true);
+            }
+        }
+
+        if (key == Input.JUMP) {
+            player.startJump(now);
+        }
+
+        if (key == Input.ATTACK) {
+            player.startAttack(now);
+        }
+    }
+
+    public void keyReleased(int key) {
+        if (inputListener != null) {
+            inputListener.onKey(key, false);
+        }
+        if (!player.isAttacking() && !player.isJumping()) {
+            if (key == Input.LEFT) {
+                movingLeft = false;
+            }
+            if (key == Input.RIGHT) {
+                movingRight = false;
+            }
+        }
+
+        if (key == Input.ATTACK) {
+            player.stopAttackInput();
+        }
+    }
+
+    public void setInput(int keys, long now) {
+        int released = heldKeys & ~keys;
+        int pressed = keys & ~heldKeys;
+        heldKeys = keys;
+
+        for (int key = 1; key <= Input.ALL; key <<= 1) {
+            if ((released & key) != 0) {
+                keyReleased(key);
+            }
+        }
+        for (int key = 1; key <= Input.ALL; key <<= 1) {
+            if ((pressed & key) != 0) {
+                keyPressed(key, now);
+            }
+        }
+    }
+
+    public void update(long now) {
+        boolean wasAttacking = player.isAttacking();
+        player.update(now, player.isAttacking(), movingLeft, movingRight);
+
+        if (wasAttacking && !player.isAttacking()) {
+            movingLeft = false;
+            movingRight = false;
+        }
+
+        if (player.isJumping()) {
+            movingLeft = false;
+            movingRight = false;
+        }
+
+        player.updateStartAnimation(now);
+    }
+
+    public void copyFrom(PlayerController other) {
+        player.copyFrom(other.player);
+        movingLeft = other.movingLeft;
+        movingRight = other.movingRight;
+        heldKeys = other.heldKeys;
+    }
+
+    public void setInputListener(InputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,107 @@
+public class RenderSnapshot {
+
+    private Match source;
+    private long sequence;
+    private long time;
+
+    private int playerX0;
+    private int playerY0;
+    private int playerX1;
+    private int playerY1;
+    private int playerX;
+    private int playerY;
+    private int playerHandle;
+    private int startHandle;
+    private boolean playerFacingRight;
+    private boolean playingStartAnimation;
+    private boolean showRasengan;
+    private int rasenganHandle;
+    private int rasenganOffsetX;
+    private int rasenganOffsetY;
+    private boolean canAttack;
+    private long remainingCooldown;
+    private long remainingAttackTime;
+
+    private int bombX0;
+    private int bombY0;
+    private int bombX1;
+    private int bombY1;
+    private int bombHandle;
+    private boolean bombFacingRight;
+    private boolean bombVisible;
+    private boolean bombDead;
+    private long bombLastSpawnTime;
+    private int bombSmoothHealthWidth;
+
+    void capture(Match match, long sequence) {
+        Player player = match.getPlayer();
+        Bomb bomb = match.getBomb();
+        long now = match.getTime();
+
+        this.source = match;
+        this.sequence = sequence;
+        this.time = now;
+
+        playerX0 = player.getRenderX(0);
+        playerY0 = player.getRenderY(0);
+        playerX1 = player.getRenderX(1);
+        playerY1 = player.getRenderY(1);
+        playerX = player.getX();
+        playerY = player.getY();
+        playerHandle = player.getFrameHandle();
+        startHandle = player.getStartHandle();
+        playerFacingRight = player.isFacingRight();
+        playingStartAnimation = player.isPlayingStartAnimation();
+        showRasengan = player.isShowRasengan();
+        rasenganHandle = player.getRasenganHandle();
+        rasenganOffsetX = player.getRasenganX() - player.getX();
+        rasenganOffsetY = player.getRasenganY() - player.getY();
+        canAttack = player.canAttack(now);
+        remainingCooldown = player.getRemainingCooldown(now);
+        remainingAttackTime = player.getRemainingAttackTime(now);
+
+        bombX0 = bomb.getRenderX(0);
+        bombY0 = bomb.getRenderY(0);
+        bombX1 = bomb.getRenderX(1);
+        bombY1 = bomb.getRenderY(1);
+        bombHandle = bomb.getFrameHandle();
+        bombFacingRight = bomb.isFacingRight();
+        bombVisible = !bomb.isDestroyed() && bomb.shouldDraw(now);
+        bombDead = bomb.isDead();
+        bombLastSpawnTime = bomb.getLastSpawnTime();
+        bombSmoothHealthWidth = bomb.getSmoothHealthWidth();
+    }
+
+    private static int interpolate(int from, int to, double alpha) {
+        return from + (int) Math.round((to - from) * alpha);
+    }
+
+    public Match getSource() { return source; }
+    public long getSequence() { return sequence; }
+    public long getTime() { return time; }
+
+    public int getPlayerRenderX(double alpha) { return interpolate(playerX0, playerX1, alpha); }
+    public int getPlayerRenderY(double alpha) { return interpolate(playerY0, playerY1, alpha); }
+    public int getPlayerX() { return playerX; }
+    public int getPlayerY() { return playerY; }
+    public int getPlayerHandle() { return playerHandle; }
+    public int getStartHandle() { return startHandle; }
+    public boolean isPlayerFacingRight() { return playerFacingRight; }
+    public boolean isPlayingStartAnimation() { return playingStartAnimation; }
+    public boolean isShowRasengan() { return showRasengan; }
+    public int getRasenganHandle() { return rasenganHandle; }
+    public int getRasenganRenderX(double alpha) { return getPlayerRenderX(alpha) + rasenganOffsetX; }
+    public int getRasenganRenderY(double alpha) { return getPlayerRenderY(alpha) + rasenganOffsetY; }
+    public boolean canAttack() { return canAttack; }
+    public long getRemainingCooldown() { return remainingCooldown; }
+    public long getRemainingAttackTime() { return remainingAttackTime; }
+
+    public int getBombRenderX(double alpha) { return interpolate(bombX0, bombX1, alpha); }
+    public int getBombRenderY(double alpha) { return interpolate(bombY0, bombY1, alpha); }
+    public int getBombHandle() { return bombHandle; }
+    public boolean isBombFacingRight() { return bombFacingRight; }
+    public boolean isBombVisible() { return bombVisible; }
+    public boolean isBombDead() { return bombDead; }
+    public long getBombLastSpawnTime() { return bombLastSpawnTime; }
+    public int getBombSmoothHealthWidth() { return bombSmoothHealthWidth; }
+}
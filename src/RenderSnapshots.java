@@ -0,0 +1,21 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RenderSnapshots {
+
+    private final AtomicReference<RenderSnapshot> shared = new AtomicReference<>(new RenderSnapshot());
+    private RenderSnapshot back = new RenderSnapshot();
+    private RenderSnapshot front = new RenderSnapshot();
+    private long sequence = 0;
+
+    public void publish(Match match) {
+        back.capture(match, ++sequence);
+        back = shared.getAndSet(back);
+    }
+
+    public RenderSnapshot acquire() {
+        if (shared.get().getSequence() > front.getSequence()) {
+            front = shared.getAndSet(front);
+        }
+        return front.getSequence() > 0 ? front : null;
+    }
+}
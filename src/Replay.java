@@ -0,0 +1,161 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class Replay {
+
+    static final int MAGIC = 0x53425250;
+    static final int VERSION = 2;
+    static final int FLAG_HIT_MASKS = 1;
+    static final int END = 0xFF;
+
+    private final long seed;
+    private final boolean hitMasks;
+    private final int[] eventTicks;
+    private final byte[] eventCodes;
+    private final long endTick;
+    private final long stateHash;
+
+    private Replay(long seed, boolean hitMasks, int[] eventTicks, byte[] eventCodes, long endTick, long stateHash) {
+        this.seed = seed;
+        this.hitMasks = hitMasks;
+        this.eventTicks = eventTicks;
+        this.eventCodes = eventCodes;
+        this.endTick = endTick;
+        this.stateHash = stateHash;
+    }
+
+    public static Replay read(Path path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (in.remaining() < 6 || in.getInt() != MAGIC || in.getShort() != VERSION) {
+            throw new IOException("Not a replay file: " + path);
+        }
+        require(in, 11, path);
+        long seed = in.getLong();
+        int flags = in.get();
+        int settingsCount = in.getShort();
+        if (settingsCount < 0) {
+            throw new IOException("Corrupt replay: " + path);
+        }
+        require(in, settingsCount * 8, path);
+        long[] settings = new long[settingsCount];
+        for (int i = 0; i < settings.length; i++) {
+            settings[i] = in.getLong();
+        }
+        if (!Arrays.equals(settings, settings())) {
+            throw new IOException("Replay was recorded with different game settings: " + path);
+        }
+
+        int[] ticks = new int[64];
+        byte[] codes = new byte[64];
+        int count = 0;
+        long tick = 0;
+        while (true) {
+            tick += readVarint(in, path);
+            require(in, 1, path);
+            int code = in.get() & 0xFF;
+            if (code == END) {
+                break;
+            }
+            if (count == ticks.length) {
+                ticks = Arrays.copyOf(ticks, count * 2);
+                codes = Arrays.copyOf(codes, count * 2);
+            }
+            ticks[count] = (int) tick;
+            codes[count] = (byte) code;
+            count++;
+        }
+        require(in, 8, path);
+        return new Replay(seed, (flags & FLAG_HIT_MASKS) != 0, Arrays.copyOf(ticks, count),
+                Arrays.copyOf(codes, count), tick, in.getLong());
+    }
+
+    static void writeHeader(DataOutputStream out, long seed, boolean hitMasks) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+        out.writeByte(hitMasks ? FLAG_HIT_MASKS : 0);
+        long[] settings = settings();
+        out.writeShort(settings.length);
+        for (long setting : settings) {
+            out.writeLong(setting);
+        }
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in, Path path) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(in, 1, path);
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt replay: " + path);
+    }
+
+    private static void require(ByteBuffer in, int bytes, Path path) throws IOException {
+        if (in.remaining() < bytes) {
+            throw new IOException("Truncated replay: " + path);
+        }
+    }
+
+    static int keyCode(int key, boolean pressed) {
+        return Integer.numberOfTrailingZeros(key) << 1 | (pressed ? 1 : 0);
+    }
+
+    private static long[] settings() {
+        long[] constants = {
+                GameSettings.TICK_NANOS, GameSettings.WINDOW_WIDTH, GameSettings.WINDOW_HEIGHT,
+                GameSettings.PLAYER_SPEED, Double.doubleToLongBits(GameSettings.PLAYER_SCALE),
+                GameSettings.PLAYER_START_X, GameSettings.PLAYER_START_Y,
+                GameSettings.ATTACK_COOLDOWN, GameSettings.MAX_ATTACK_DURATION, GameSettings.JUMP_COOLDOWN,
+                GameSettings.BOMB_HEALTH, GameSettings.BOMB_SPAWN_DELAY, GameSettings.BOMB_START_X,
+                GameSettings.BOMB_START_Y, GameSettings.ATTACK_RANGE, GameSettings.DAMAGE_PER_FRAME,
+                GameSettings.ANIMATION_IDLE_DELAY, GameSettings.ANIMATION_WALK_DELAY,
+                GameSettings.ANIMATION_ATTACK_DELAY, GameSettings.ANIMATION_RASENGAN_DELAY,
+                GameSettings.ANIMATION_HIT_DELAY, GameSettings.ANIMATION_JUMP_DELAY,
+                GameSettings.ANIMATION_BOMB_IDLE_DELAY, GameSettings.ANIMATION_BOMB_HIT_DELAY,
+                GameSettings.ANIMATION_START_DELAY, GameSettings.VS_SOUND_DELAY,
+                GameSettings.START_ANIMATION_DELAY, GameSettings.BOMB_BLINK_DURATION,
+                GameSettings.BOMB_KNOCKBACK_DISTANCE, GameSettings.RASENGAN_SIZE,
+                GameSettings.RASENGAN_OFFSET_X, GameSettings.RASENGAN_OFFSET_Y,
+                GameSettings.JUMP_BOUNCE_UP, GameSettings.JUMP_BOUNCE_BACK,
+                GameSettings.JUMP_BOUNCE_UP_STEP, GameSettings.JUMP_BOUNCE_BACK_STEP
+        };
+        Animation[] animations = Animation.values();
+        long[] settings = Arrays.copyOf(constants, constants.length + animations.length * 3);
+        for (int i = 0; i < animations.length; i++) {
+            settings[constants.length + i * 3] = animations[i].getFrames();
+            settings[constants.length + i * 3 + 1] = animations[i].getFrameWidth();
+            settings[constants.length + i * 3 + 2] = animations[i].getFrameHeight();
+        }
+        return settings;
+    }
+
+    public Match createMatch(SoundEvents sounds) {
+        return new Match(sounds, seed);
+    }
+
+    public int getEventCount() { return eventTicks.length; }
+    public int getEventTick(int index) { return eventTicks[index]; }
+    public int getEventKey(int index) { return 1 << (eventCodes[index] >> 1); }
+    public boolean isEventPressed(int index) { return (eventCodes[index] & 1) != 0; }
+    public long getSeed() { return seed; }
+    public boolean hasHitMasks() { return hitMasks; }
+    public long getEndTick() { return endTick; }
+    public long getStateHash() { return stateHash; }
+}
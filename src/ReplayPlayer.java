@@ -0,0 +1,33 @@
+public class ReplayPlayer {
+
+    private final Replay replay;
+    private int next = 0;
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+    }
+
+    public void apply(Match match) {
+        long tick = match.getTickCount();
+        while (next < replay.getEventCount() && replay.getEventTick(next) == tick) {
+            if (replay.isEventPressed(next)) {
+                match.keyPressed(replay.getEventKey(next));
+            } else {
+                match.keyReleased(replay.getEventKey(next));
+            }
+            next++;
+        }
+    }
+
+    public boolean isFinished(Match match) {
+        return match.getTickCount() >= replay.getEndTick();
+    }
+
+    public boolean matchesRecording(Match match) {
+        return match.getStateHash() == replay.getStateHash();
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+}
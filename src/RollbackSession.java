@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class RollbackSession implements AutoCloseable {
+
+    private static final int MAGIC = 0x53425631;
+    private static final int HEADER_SIZE = 13;
+    private static final int INPUT_RING = 256;
+
+    private final DatagramChannel channel;
+    private final int localIndex;
+    private final int inputDelay;
+    private final int maxRollback;
+
+    private final SoundEvents sounds;
+    private final VersusMatch match;
+    private final VersusMatch[] saved;
+    private boolean resimulating = false;
+    private final boolean[] rasenganPlaying = new boolean[VersusMatch.PLAYERS];
+    private final boolean[] footstepsPlaying = new boolean[VersusMatch.PLAYERS];
+
+    private final byte[] localInputs = new byte[INPUT_RING];
+    private final byte[] remoteInputs = new byte[INPUT_RING];
+    private final int[] remoteFrames = new int[INPUT_RING];
+    private final byte[] predictedInputs = new byte[INPUT_RING];
+
+    private int frame = 0;
+    private int lastLocalFrame;
+    private int confirmedRemote = -1;
+    private int remoteAck = -1;
+    private int rollbackFrom = Integer.MAX_VALUE;
+
+    private long rollbacks = 0;
+    private long rolledBackFrames = 0;
+    private int maxRolledBackFrames = 0;
+    private long maxResimNanos = 0;
+    private long stalls = 0;
+
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(GameSettings.NET_MAX_PACKET_SIZE);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(GameSettings.NET_MAX_PACKET_SIZE);
+
+    private final PriorityQueue<DelayedPacket> delayed = new PriorityQueue<>();
+    private final Random conditions = new Random();
+    private long latencyNanos = 0;
+    private long jitterNanos = 0;
+    private double lossRate = 0;
+
+    public RollbackSession(int localIndex, InetSocketAddress localAddress, SoundEvents sounds) throws IOException {
+        this(localIndex, localAddress, sounds, GameSettings.NET_INPUT_DELAY, GameSettings.NET_MAX_ROLLBACK_FRAMES);
+    }
+
+    public RollbackSession(int localIndex, InetSocketAddress localAddress, SoundEvents sounds,
+            int inputDelay, int maxRollback) throws IOException {
+        this.localIndex = localIndex;
+        this.inputDelay = inputDelay;
+        this.maxRollback = maxRollback;
+        this.lastLocalFrame = inputDelay - 1;
+        this.sounds = sounds;
+
+        match = new VersusMatch(new SoundEvents() {
+            @Override
+            public void play(SoundCue cue) {
+                if (!resimulating) sounds.play(cue);
+            }
+            @Override
+            public void loop(SoundCue cue) {
+                if (!resimulating) sounds.loop(cue);
+            }
+            @Override
+            public void stop(SoundCue cue) {
+                if (!resimulating) sounds.stop(cue);
+            }
+        });
+        saved = new VersusMatch[maxRollback + 2];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = new VersusMatch(SoundEvents.NONE);
+        }
+        Arrays.fill(remoteFrames, -1);
+
+        channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.bind(localAddress);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void connect(SocketAddress remoteAddress) throws IOException {
+        channel.connect(remoteAddress);
+    }
+
+    public void setSimulatedConditions(int latencyMs, int jitterMs, double lossRate) {
+        this.latencyNanos = latencyMs * 1000000L;
+        this.jitterNanos = jitterMs * 1000000L;
+        this.lossRate = lossRate;
+    }
+
+    public boolean advance(long nowNanos, int input) throws IOException {
+        synchronize(nowNanos);
+        if (frame - confirmedRemote > maxRollback) {
+            stalls++;
+            send(nowNanos);
+            return false;
+        }
+
+        lastLocalFrame = frame + inputDelay;
+        localInputs[lastLocalFrame % INPUT_RING] = (byte) input;
+        simulate();
+        send(nowNanos);
+        return true;
+    }
+
+    public void poll(long nowNanos) throws IOException {
+        synchronize(nowNanos);
+        send(nowNanos);
+    }
+
+    private void synchronize(long nowNanos) throws IOException {
+        flushDelayed(nowNanos);
+        receive();
+        if (rollbackFrom < frame) {
+            rollback();
+        }
+        rollbackFrom = Integer.MAX_VALUE;
+    }
+
+    private void simulate() {
+        saved[frame % saved.length].copyFrom(match);
+        int slot = frame % INPUT_RING;
+        int remote = getRemoteInput(frame);
+        predictedInputs[slot] = (byte) remote;
+        if (localIndex == 0) {
+            match.tick(localInputs[slot], remote);
+        } else {
+            match.tick(remote, localInputs[slot]);
+        }
+        frame++;
+    }
+
+    private int getRemoteInput(int inputFrame) {
+        int slot = inputFrame % INPUT_RING;
+        if (remoteFrames[slot] == inputFrame) {
+            return remoteInputs[slot];
+        }
+        return confirmedRemote >= 0 ? remoteInputs[confirmedRemote % INPUT_RING] : 0;
+    }
+
+    private void rollback() {
+        long start = System.nanoTime();
+        int target = frame;
+        int count = target - rollbackFrom;
+        for (int i = 0; i < VersusMatch.PLAYERS; i++) {
+            rasenganPlaying[i] = match.getPlayer(i).isSoundPlaying();
+            footstepsPlaying[i] = match.getPlayer(i).isFootstepsPlaying();
+        }
+        match.copyFrom(saved[rollbackFrom % saved.length]);
+        frame = rollbackFrom;
+        resimulating = true;
+        while (frame < target) {
+            simulate();
+        }
+        resimulating = false;
+        resyncSounds();
+
+        rollbacks++;
+        rolledBackFrames += count;
+        maxRolledBackFrames = Math.max(maxRolledBackFrames, count);
+        maxResimNanos = Math.max(maxResimNanos, System.nanoTime() - start);
+    }
+
+    private void resyncSounds() {
+        for (int i = 0; i < VersusMatch.PLAYERS; i++) {
+            Player player = match.getPlayer(i);
+            if (player.isSoundPlaying() != rasenganPlaying[i]) {
+                if (player.isSoundPlaying()) {
+                    sounds.play(SoundCue.RASENGAN);
+                } else {
+                    sounds.stop(SoundCue.RASENGAN);
+                }
+            }
+            if (player.isFootstepsPlaying() != footstepsPlaying[i]) {
+                if (player.isFootstepsPlaying()) {
+                    sounds.loop(SoundCue.FOOTSTEPS);
+                } else {
+                    sounds.stop(SoundCue.FOOTSTEPS);
+                }
+            }
+        }
+    }
+
+    private void receive() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from;
+            try {
+                from = channel.receive(receiveBuffer);
+            } catch (PortUnreachableException e) {
+                return;
+            }
+            if (from == null) {
+                return;
+            }
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() >= HEADER_SIZE && receiveBuffer.getInt() == MAGIC) {
+                readInputs(receiveBuffer);
+            }
+        }
+    }
+
+    private void readInputs(ByteBuffer in) {
+        remoteAck = Math.max(remoteAck, in.getInt());
+        int first = in.getInt();
+        int count = Math.min(in.get() & 0xFF, in.remaining());
+        for (int i = 0; i < count; i++) {
+            int inputFrame = first + i;
+            byte input = in.get();
+            if (inputFrame <= confirmedRemote || inputFrame - confirmedRemote >= INPUT_RING / 2) {
+                continue;
+            }
+            int slot = inputFrame % INPUT_RING;
+            if (remoteFrames[slot] == inputFrame) {
+                continue;
+            }
+            remoteFrames[slot] = inputFrame;
+            remoteInputs[slot] = input;
+            if (inputFrame < frame && predictedInputs[slot] != input) {
+                rollbackFrom = Math.min(rollbackFrom, inputFrame);
+            }
+        }
+        while (remoteFrames[(confirmedRemote + 1) % INPUT_RING] == confirmedRemote + 1) {
+            confirmedRemote++;
+        }
+    }
+
+    private void send(long nowNanos) throws IOException {
+        if (!channel.isConnected()) {
+            return;
+        }
+        int first = Math.max(remoteAck + 1, lastLocalFrame - GameSettings.NET_INPUT_WINDOW + 1);
+        int count = Math.max(0, lastLocalFrame - first + 1);
+        sendBuffer.clear();
+        sendBuffer.putInt(MAGIC).putInt(confirmedRemote).putInt(first).put((byte) count);
+        for (int i = 0; i < count; i++) {
+            sendBuffer.put(localInputs[(first + i) % INPUT_RING]);
+        }
+        sendBuffer.flip();
+
+        if (lossRate > 0 && conditions.nextDouble() < lossRate) {
+            return;
+        }
+        if (latencyNanos > 0 || jitterNanos > 0) {
+            long jitter = jitterNanos > 0 ? (long) (conditions.nextDouble() * jitterNanos) : 0;
+            byte[] data = new byte[sendBuffer.remaining()];
+            sendBuffer.get(data);
+            delayed.add(new DelayedPacket(nowNanos + latencyNanos + jitter, data));
+            return;
+        }
+        write(sendBuffer);
+    }
+
+    private void flushDelayed(long nowNanos) throws IOException {
+        while (!delayed.isEmpty() && delayed.peek().releaseNanos <= nowNanos) {
+            write(ByteBuffer.wrap(delayed.poll().data));
+        }
+    }
+
+    private void write(ByteBuffer packet) throws IOException {
+        try {
+            channel.write(packet);
+        } catch (PortUnreachableException e) {
+        }
+    }
+
+    public long getStateHash(int stateFrame) {
+        if (stateFrame == frame) {
+            return match.getStateHash();
+        }
+        if (stateFrame < frame && frame - stateFrame < saved.length) {
+            return saved[stateFrame % saved.length].getStateHash();
+        }
+        throw new IllegalArgumentException("Frame " + stateFrame + " is no longer saved");
+    }
+
+    public String report() {
+        return String.format("frames %d, rollbacks %d (%d frames, max %d), stalls %d, max resim %.3f ms",
+                frame, rollbacks, rolledBackFrames, maxRolledBackFrames, stalls, maxResimNanos / 1e6);
+    }
+
+    public VersusMatch getMatch() { return match; }
+    public int getFrame() { return frame; }
+    public int getConfirmedFrame() { return confirmedRemote; }
+    public int getLocalIndex() { return localIndex; }
+    public InetSocketAddress getLocalAddress() throws IOException { return (InetSocketAddress) channel.getLocalAddress(); }
+    public long getMaxResimNanos() { return maxResimNanos; }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static class DelayedPacket implements Comparable<DelayedPacket> {
+        private final long releaseNanos;
+        private final byte[] data;
+
+        private DelayedPacket(long releaseNanos, byte[] data) {
+            this.releaseNanos = releaseNanos;
+            this.data = data;
+        }
+
+        @Override
+        public int compareTo(DelayedPacket other) {
+            return Long.compare(releaseNanos, other.releaseNanos);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+public class SoundBank {
+
+    private final List<Entry> entries;
+
+    private SoundBank(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public static SoundBank load(String manifestPath) throws IOException {
+        Properties manifest = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get(manifestPath), StandardCharsets.UTF_8)) {
+            manifest.load(reader);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (SoundCue cue : SoundCue.values()) {
+            String name = cue.name().toLowerCase(Locale.ROOT);
+            String path = manifest.getProperty(name + ".path");
+            if (path == null) {
+                continue;
+            }
+            entries.add(new Entry(cue, path.trim(),
+                    Float.parseFloat(manifest.getProperty(name + ".gain", "0").trim()),
+                    Integer.parseInt(manifest.getProperty(name + ".priority", "0").trim()),
+                    Boolean.parseBoolean(manifest.getProperty(name + ".stream", "false").trim())));
+        }
+        return new SoundBank(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static class Entry {
+        private final SoundCue cue;
+        private final String path;
+        private final float gain;
+        private final int priority;
+        private final boolean streamed;
+
+        private Entry(SoundCue cue, String path, float gain, int priority, boolean streamed) {
+            this.cue = cue;
+            this.path = path;
+            this.gain = gain;
+            this.priority = priority;
+            this.streamed = streamed;
+        }
+
+        public SoundCue getCue() { return cue; }
+        public String getPath() { return path; }
+        public float getGain() { return gain; }
+        public int getPriority() { return priority; }
+        public boolean isStreamed() { return streamed; }
+    }
+}
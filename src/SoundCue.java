@@ -0,0 +1,9 @@
+public enum SoundCue {
+    RASENGAN,
+    FOOTSTEPS,
+    BOMB_DEATH,
+    BOMB_HIT,
+    BOMB_RESPAWN,
+    VS,
+    MENU_MUSIC
+}
@@ -0,0 +1,72 @@
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class SoundData {
+
+    private final AudioFormat format;
+    private final byte[] data;
+
+    public SoundData(AudioFormat format, byte[] data) {
+        this.format = format;
+        this.data = data;
+    }
+
+    public static SoundData load(String path) throws Exception {
+        long start = System.nanoTime();
+        byte[] bytes = Files.readAllBytes(Paths.get(path));
+        LoadTimings.record(LoadTimings.Stage.IO, path, start);
+
+        start = System.nanoTime();
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(bytes))) {
+            SoundData sound = new SoundData(stream.getFormat(), stream.readAllBytes());
+            LoadTimings.record(LoadTimings.Stage.DECODE, path, start);
+            return sound;
+        }
+    }
+
+    public short[] toStereoPcm(float sampleRate) throws Exception {
+        AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        byte[] bytes;
+        try (AudioInputStream source = new AudioInputStream(new ByteArrayInputStream(data), format,
+                data.length / Math.max(1, format.getFrameSize()));
+             AudioInputStream converted = AudioSystem.getAudioInputStream(pcmFormat, source)) {
+            bytes = converted.readAllBytes();
+        }
+
+        int channels = pcmFormat.getChannels();
+        int frames = bytes.length / (channels * 2);
+        short[] stereo = new short[frames * 2];
+        for (int frame = 0; frame < frames; frame++) {
+            int offset = frame * channels * 2;
+            short left = (short) ((bytes[offset] & 0xFF) | (bytes[offset + 1] << 8));
+            short right = channels > 1 ? (short) ((bytes[offset + 2] & 0xFF) | (bytes[offset + 3] << 8)) : left;
+            stereo[frame * 2] = left;
+            stereo[frame * 2 + 1] = right;
+        }
+        if (format.getSampleRate() == sampleRate) {
+            return stereo;
+        }
+
+        double step = format.getSampleRate() / sampleRate;
+        int outFrames = (int) (frames / step);
+        short[] resampled = new short[outFrames * 2];
+        for (int frame = 0; frame < outFrames; frame++) {
+            double position = frame * step;
+            int index = (int) position;
+            int next = Math.min(index + 1, frames - 1);
+            double t = position - index;
+            resampled[frame * 2] = (short) Math.round(stereo[index * 2] + (stereo[next * 2] - stereo[index * 2]) * t);
+            resampled[frame * 2 + 1] = (short) Math.round(stereo[index * 2 + 1] + (stereo[next * 2 + 1] - stereo[index * 2 + 1]) * t);
+        }
+        return resampled;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+}
@@ -0,0 +1,94 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class SoundDiskCache {
+
+    private static final int MAGIC = 0x50434D31;
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 6;
+
+    private static final Path directory = Paths.get(GameSettings.SOUND_CACHE_DIR);
+
+    public static short[] load(String sourcePath, int sampleRate, int channels) {
+        long start = System.nanoTime();
+        try {
+            int contentHash = AssetRegistry.getContentHash(sourcePath);
+            Path file = getCacheFile(contentHash, sampleRate, channels);
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+
+            short[] samples;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                samples = read(map.order(ByteOrder.LITTLE_ENDIAN), contentHash, sampleRate, channels);
+            }
+            if (samples == null) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            LoadTimings.record(LoadTimings.Stage.CACHE_READ, sourcePath, start);
+            return samples;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void store(String sourcePath, int sampleRate, int channels, short[] samples) {
+        long start = System.nanoTime();
+        try {
+            int contentHash = AssetRegistry.getContentHash(sourcePath);
+            Path file = getCacheFile(contentHash, sampleRate, channels);
+            Files.createDirectories(directory);
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_INTS * 4 + samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(contentHash).putInt(sampleRate).putInt(channels).putInt(samples.length);
+            buffer.asShortBuffer().put(samples);
+            buffer.rewind();
+
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LoadTimings.record(LoadTimings.Stage.CACHE_WRITE, sourcePath, start);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static short[] read(ByteBuffer in, int contentHash, int sampleRate, int channels) {
+        if (in.remaining() < HEADER_INTS * 4) {
+            return null;
+        }
+        IntBuffer header = in.asIntBuffer();
+        if (header.get() != MAGIC || header.get() != VERSION || header.get() != contentHash
+                || header.get() != sampleRate || header.get() != channels) {
+            return null;
+        }
+        int length = header.get();
+        in.position(HEADER_INTS * 4);
+        if (length < 0 || in.remaining() != length * 2L) {
+            return null;
+        }
+
+        short[] samples = new short[length];
+        in.asShortBuffer().get(samples);
+        return samples;
+    }
+
+    private static Path getCacheFile(int contentHash, int sampleRate, int channels) {
+        return directory.resolve(String.format("%08x-%d-%d.pcm", contentHash, sampleRate, channels));
+    }
+}
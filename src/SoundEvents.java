@@ -0,0 +1,17 @@
+public interface SoundEvents {
+
+    SoundEvents NONE = new SoundEvents() {
+        @Override
+        public void play(SoundCue cue) {}
+        @Override
+        public void loop(SoundCue cue) {}
+        @Override
+        public void stop(SoundCue cue) {}
+    };
+
+    void play(SoundCue cue);
+
+    void loop(SoundCue cue);
+
+    void stop(SoundCue cue);
+}
@@ -1,52 +1,40 @@
-import java.io.File;
-import javax.sound.sampled.*;
+import java.util.concurrent.CompletableFuture;
 
 public class SoundManager {
-    private Clip backgroundMusic;
+    private final AudioMixer mixer;
     private boolean isBackgroundMusicPlaying = false;
     
-    public SoundManager() {
-        loadBackgroundMusic();
+    public SoundManager(AudioMixer mixer) {
+        this.mixer = mixer;
     }
     
-    private void loadBackgroundMusic() {
-        try {
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(new File("assets/sfx/bg.wav"));
-            backgroundMusic = AudioSystem.getClip();
-            backgroundMusic.open(audioStream);
-            
-            FloatControl volumeControl = (FloatControl) backgroundMusic.getControl(FloatControl.Type.MASTER_GAIN);
-            float volume = -18.0f;
-            volumeControl.setValue(volume);
-            backgroundMusic.loop(Clip.LOOP_CONTINUOUSLY);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public CompletableFuture<Void> load() {
+        return mixer.load().thenRun(() -> mixer.loop(SoundCue.MENU_MUSIC));
     }
     
     public void startBackgroundMusic() {
-        if (backgroundMusic != null && !isBackgroundMusicPlaying) {
-            backgroundMusic.start();
+        if (!isBackgroundMusicPlaying) {
+            mixer.resume(SoundCue.MENU_MUSIC);
             isBackgroundMusicPlaying = true;
         }
     }
     
     public void stopBackgroundMusic() {
-        if (backgroundMusic != null && isBackgroundMusicPlaying) {
-            backgroundMusic.stop();
+        if (isBackgroundMusicPlaying) {
+            mixer.stop(SoundCue.MENU_MUSIC);
             isBackgroundMusicPlaying = false;
         }
     }
     
     public void pauseBackgroundMusic() {
-        if (backgroundMusic != null && isBackgroundMusicPlaying) {
-            backgroundMusic.stop();
+        if (isBackgroundMusicPlaying) {
+            mixer.pause(SoundCue.MENU_MUSIC);
         }
     }
     
     public void resumeBackgroundMusic() {
-        if (backgroundMusic != null && isBackgroundMusicPlaying) {
-            backgroundMusic.start();
+        if (isBackgroundMusicPlaying) {
+            mixer.resume(SoundCue.MENU_MUSIC);
         }
     }
 }
@@ -0,0 +1,111 @@
+import java.awt.Dimension;
+import java.util.Arrays;
+
+public class SpatialHash {
+
+    private static final int NONE = -1;
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] heads;
+
+    private int[] cellOf;
+    private int[] next;
+    private int[] previous;
+
+    public SpatialHash(Dimension area, int cellSize, int capacity) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (area.width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (area.height + cellSize - 1) / cellSize);
+        this.heads = new int[columns * rows];
+        Arrays.fill(heads, NONE);
+
+        capacity = Math.max(1, capacity);
+        cellOf = new int[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+        Arrays.fill(cellOf, NONE);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= cellOf.length) {
+            return;
+        }
+        int oldCapacity = cellOf.length;
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        Arrays.fill(cellOf, oldCapacity, capacity, NONE);
+    }
+
+    public void update(int id, int x, int y) {
+        int cell = row(y) * columns + column(x);
+        int current = cellOf[id];
+        if (current == cell) {
+            return;
+        }
+        if (current != NONE) {
+            unlink(id, current);
+        }
+        link(id, cell);
+    }
+
+    public void remove(int id) {
+        if (cellOf[id] != NONE) {
+            unlink(id, cellOf[id]);
+        }
+    }
+
+    public int query(int x, int y, int radius, int[] out) {
+        return query(x - radius, y - radius, x + radius, y + radius, out);
+    }
+
+    public int query(int minX, int minY, int maxX, int maxY, int[] out) {
+        int minColumn = column(minX);
+        int maxColumn = column(maxX);
+        int minRow = row(minY);
+        int maxRow = row(maxY);
+
+        int count = 0;
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                for (int id = heads[r * columns + c]; id != NONE; id = next[id]) {
+                    out[count++] = id;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int column(int x) {
+        return Math.min(Math.max(Math.floorDiv(x, cellSize), 0), columns - 1);
+    }
+
+    private int row(int y) {
+        return Math.min(Math.max(Math.floorDiv(y, cellSize), 0), rows - 1);
+    }
+
+    private void link(int id, int cell) {
+        int head = heads[cell];
+        next[id] = head;
+        previous[id] = NONE;
+        if (head != NONE) {
+            previous[head] = id;
+        }
+        heads[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    private void unlink(int id, int cell) {
+        if (previous[id] != NONE) {
+            next[previous[id]] = next[id];
+        } else {
+            heads[cell] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+        cellOf[id] = NONE;
+    }
+}
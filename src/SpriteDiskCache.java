@@ -0,0 +1,151 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+public class SpriteDiskCache {
+
+    private static final int MAGIC = 0x53505231;
+    private static final int VERSION = 2;
+
+    private static final Path directory = Paths.get(GameSettings.SPRITE_CACHE_DIR);
+
+    public static BufferedImage[] load(String sourcePath, String key) {
+        long start = System.nanoTime();
+        try {
+            int contentHash = AssetRegistry.getContentHash(sourcePath);
+            Path file = getCacheFile(contentHash, key);
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+
+            BufferedImage[] frames;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                frames = read(map.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(), contentHash, encodeKey(key));
+            }
+            if (frames == null) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            LoadTimings.record(LoadTimings.Stage.CACHE_READ, sourcePath, start);
+            return frames;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void store(String sourcePath, String key, BufferedImage[] frames) {
+        long start = System.nanoTime();
+        try {
+            int contentHash = AssetRegistry.getContentHash(sourcePath);
+            Path file = getCacheFile(contentHash, key);
+            Files.createDirectories(directory);
+
+            int[] encodedKey = encodeKey(key);
+            long ints = 4 + encodedKey.length + 1 + 2L * frames.length;
+            for (BufferedImage frame : frames) {
+                ints += (long) frame.getWidth() * frame.getHeight();
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(ints * 4)).order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer out = buffer.asIntBuffer();
+            out.put(MAGIC).put(VERSION).put(contentHash).put(encodedKey.length).put(encodedKey);
+            out.put(frames.length);
+            for (BufferedImage frame : frames) {
+                out.put(frame.getWidth()).put(frame.getHeight());
+            }
+            for (BufferedImage frame : frames) {
+                out.put(toPremultiplied(frame));
+            }
+
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LoadTimings.record(LoadTimings.Stage.CACHE_WRITE, sourcePath, start);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static BufferedImage[] read(IntBuffer in, int contentHash, int[] encodedKey) {
+        if (in.remaining() < 4 || in.get() != MAGIC || in.get() != VERSION || in.get() != contentHash) {
+            return null;
+        }
+        int keyLength = in.get();
+        if (keyLength != encodedKey.length || in.remaining() < keyLength + 1) {
+            return null;
+        }
+        for (int value : encodedKey) {
+            if (in.get() != value) {
+                return null;
+            }
+        }
+
+        int count = in.get();
+        if (count < 0 || in.remaining() < 2L * count) {
+            return null;
+        }
+
+        int[] sizes = new int[count * 2];
+        in.get(sizes);
+        long pixels = 0;
+        for (int i = 0; i < count; i++) {
+            if (sizes[i * 2] <= 0 || sizes[i * 2 + 1] <= 0) {
+                return null;
+            }
+            pixels += (long) sizes[i * 2] * sizes[i * 2 + 1];
+        }
+        if (in.remaining() != pixels) {
+            return null;
+        }
+
+        BufferedImage[] frames = new BufferedImage[count];
+        for (int i = 0; i < count; i++) {
+            BufferedImage frame = new BufferedImage(sizes[i * 2], sizes[i * 2 + 1], BufferedImage.TYPE_INT_ARGB_PRE);
+            in.get(((DataBufferInt) frame.getRaster().getDataBuffer()).getData());
+            frames[i] = frame;
+        }
+        return frames;
+    }
+
+    private static int[] toPremultiplied(BufferedImage frame) {
+        BufferedImage premultiplied = frame;
+        if (frame.getType() != BufferedImage.TYPE_INT_ARGB_PRE) {
+            premultiplied = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g2d = premultiplied.createGraphics();
+            g2d.drawImage(frame, 0, 0, null);
+            g2d.dispose();
+        }
+        return (int[]) premultiplied.getRaster().getDataElements(0, 0, frame.getWidth(), frame.getHeight(), null);
+    }
+
+    private static Path getCacheFile(int contentHash, String key) {
+        CRC32C keyHash = new CRC32C();
+        keyHash.update(key.getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(String.format("%08x-%08x.spr", contentHash, (int) keyHash.getValue()));
+    }
+
+    private static int[] encodeKey(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int[] encoded = new int[(bytes.length + 3) / 4];
+        ByteBuffer.wrap(Arrays.copyOf(bytes, encoded.length * 4)).asIntBuffer().get(encoded);
+        return encoded;
+    }
+}
@@ -0,0 +1,78 @@
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TextCache {
+
+    public static final int PADDING = 2;
+
+    private static final int ALPHA_STEPS = 64;
+
+    private static final Map<String, Font> fonts = new ConcurrentHashMap<>();
+    private static final Map<Font, FontMetrics> metrics = new ConcurrentHashMap<>();
+    private static final Map<String, BufferedImage> images = new ConcurrentHashMap<>();
+    private static final AlphaComposite[] composites = new AlphaComposite[ALPHA_STEPS + 1];
+
+    static {
+        for (int i = 0; i <= ALPHA_STEPS; i++) {
+            composites[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) i / ALPHA_STEPS);
+        }
+    }
+
+    public static Font getFont(String name, int style, int size) {
+        return fonts.computeIfAbsent(name + "/" + style + "/" + size, key -> new Font(name, style, size));
+    }
+
+    public static FontMetrics getMetrics(Font font) {
+        return metrics.computeIfAbsent(font, key -> {
+            Graphics2D g2d = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            FontMetrics fm = g2d.getFontMetrics(key);
+            g2d.dispose();
+            return fm;
+        });
+    }
+
+    public static BufferedImage getImage(String text, Font font, Color color) {
+        String key = font.getName() + "/" + font.getStyle() + "/" + font.getSize() + "/"
+                + Integer.toHexString(color.getRGB()) + "/" + text;
+        return images.computeIfAbsent(key, k -> render(text, font, color));
+    }
+
+    public static AlphaComposite getComposite(float alpha) {
+        int step = Math.round(Math.max(0f, Math.min(1f, alpha)) * ALPHA_STEPS);
+        return composites[step];
+    }
+
+    private static BufferedImage render(String text, Font font, Color color) {
+        FontMetrics fm = getMetrics(font);
+        int width = Math.max(1, fm.stringWidth(text) + PADDING * 2);
+        int height = Math.max(1, fm.getAscent() + fm.getDescent() + PADDING * 2);
+
+        BufferedImage image;
+        if (GraphicsEnvironment.isHeadless()) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        } else {
+            GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            image = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(font);
+        g2d.setColor(color);
+        g2d.drawString(text, PADDING, PADDING + fm.getAscent());
+        g2d.dispose();
+        return image;
+    }
+}
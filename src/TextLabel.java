@@ -0,0 +1,73 @@
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+public class TextLabel {
+
+    private final Font font;
+    private final FontMetrics metrics;
+    private String text;
+    private Color color;
+    private int width;
+    private BufferedImage image;
+
+    public TextLabel(String text, Font font, Color color) {
+        this.text = text;
+        this.font = font;
+        this.color = color;
+        this.metrics = TextCache.getMetrics(font);
+        this.width = metrics.stringWidth(text);
+    }
+
+    public TextLabel(String text, int style, int size, Color color) {
+        this(text, TextCache.getFont("Arial", style, size), color);
+    }
+
+    public void setText(String text) {
+        if (!text.equals(this.text)) {
+            this.text = text;
+            width = metrics.stringWidth(text);
+            image = null;
+        }
+    }
+
+    public void setColor(Color color) {
+        if (!color.equals(this.color)) {
+            this.color = color;
+            image = null;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return metrics.getAscent() + metrics.getDescent();
+    }
+
+    public FontMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void draw(Graphics2D g2d, int x, int baselineY) {
+        if (image == null) {
+            image = TextCache.getImage(text, font, color);
+        }
+        g2d.drawImage(image, x - TextCache.PADDING, baselineY - metrics.getAscent() - TextCache.PADDING, null);
+    }
+
+    public void draw(Graphics2D g2d, int x, int baselineY, float alpha) {
+        Composite composite = g2d.getComposite();
+        g2d.setComposite(TextCache.getComposite(alpha));
+        draw(g2d, x, baselineY);
+        g2d.setComposite(composite);
+    }
+
+    public void drawCentered(Graphics2D g2d, int centerX, int baselineY) {
+        draw(g2d, centerX - getWidth() / 2, baselineY);
+    }
+}
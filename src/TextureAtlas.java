@@ -0,0 +1,169 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+public class TextureAtlas {
+
+    public static final int NO_FRAME = -1;
+    public static final int HANDLE_COUNT;
+
+    private static final int[] FIRST_HANDLE = new int[Animation.values().length];
+    private static final int PADDING = 1;
+
+    static {
+        int handle = 0;
+        for (Animation animation : Animation.values()) {
+            FIRST_HANDLE[animation.ordinal()] = handle;
+            handle += animation.getFrames();
+        }
+        HANDLE_COUNT = handle;
+    }
+
+    private final BufferedImage image;
+    private final int[] rects;
+    private final int[] offsets;
+
+    private TextureAtlas(BufferedImage image, int[] rects, int[] offsets) {
+        this.image = image;
+        this.rects = rects;
+        this.offsets = offsets;
+    }
+
+    public static int getHandle(Animation animation, int index) {
+        return FIRST_HANDLE[animation.ordinal()] + index % animation.getFrames();
+    }
+
+    public static TextureAtlas build(BufferedImage[][] right, BufferedImage[][] left, GraphicsConfiguration configuration) {
+        int entries = HANDLE_COUNT * 2;
+        BufferedImage[] frames = new BufferedImage[entries];
+        for (Animation animation : Animation.values()) {
+            int first = FIRST_HANDLE[animation.ordinal()];
+            BufferedImage[] rightFrames = right[animation.ordinal()];
+            BufferedImage[] leftFrames = left[animation.ordinal()];
+            for (int i = 0; i < animation.getFrames(); i++) {
+                frames[first + i] = rightFrames != null && i < rightFrames.length ? rightFrames[i] : null;
+                frames[HANDLE_COUNT + first + i] = leftFrames != null && i < leftFrames.length ? leftFrames[i] : null;
+            }
+        }
+
+        int[] bounds = new int[entries * 4];
+        for (int i = 0; i < entries; i++) {
+            if (frames[i] != null) {
+                trim(frames[i], bounds, i * 4);
+            }
+        }
+
+        Integer[] order = new Integer[entries];
+        long area = 0;
+        int maxWidth = 1;
+        for (int i = 0; i < entries; i++) {
+            order[i] = i;
+            if (bounds[i * 4 + 2] > 0) {
+                area += (long) (bounds[i * 4 + 2] + PADDING) * (bounds[i * 4 + 3] + PADDING);
+                maxWidth = Math.max(maxWidth, bounds[i * 4 + 2] + PADDING);
+            }
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(bounds[b * 4 + 3], bounds[a * 4 + 3]));
+
+        int pageWidth = Math.max(maxWidth, Integer.highestOneBit((int) Math.ceil(Math.sqrt(area)) * 2 - 1));
+        int[] rects = new int[entries * 4];
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (int entry : order) {
+            int width = bounds[entry * 4 + 2];
+            int height = bounds[entry * 4 + 3];
+            if (width == 0) {
+                continue;
+            }
+            if (shelfX + width > pageWidth) {
+                shelfX = 0;
+                shelfY += shelfHeight;
+                shelfHeight = 0;
+            }
+            rects[entry * 4] = shelfX;
+            rects[entry * 4 + 1] = shelfY;
+            rects[entry * 4 + 2] = width;
+            rects[entry * 4 + 3] = height;
+            shelfX += width + PADDING;
+            shelfHeight = Math.max(shelfHeight, height + PADDING);
+        }
+        int pageHeight = Math.max(1, shelfY + shelfHeight);
+
+        BufferedImage page = configuration != null
+                ? configuration.createCompatibleImage(pageWidth, pageHeight, Transparency.TRANSLUCENT)
+                : new BufferedImage(pageWidth, pageHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] offsets = new int[entries * 2];
+        Graphics2D g2d = page.createGraphics();
+        for (int entry = 0; entry < entries; entry++) {
+            BufferedImage frame = frames[entry];
+            if (frame == null) {
+                continue;
+            }
+            int width = rects[entry * 4 + 2];
+            int height = rects[entry * 4 + 3];
+            if (width == 0) {
+                continue;
+            }
+            int dx = rects[entry * 4];
+            int dy = rects[entry * 4 + 1];
+            int sx = bounds[entry * 4];
+            int sy = bounds[entry * 4 + 1];
+            g2d.drawImage(frame, dx, dy, dx + width, dy + height, sx, sy, sx + width, sy + height, null);
+            offsets[entry * 2] = sx;
+            offsets[entry * 2 + 1] = sy;
+        }
+        g2d.dispose();
+
+        return new TextureAtlas(page, rects, offsets);
+    }
+
+    private static void trim(BufferedImage frame, int[] bounds, int index) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int[] row = new int[width];
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < height; y++) {
+            frame.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                if ((row[x] >>> 24) != 0) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                }
+            }
+        }
+        if (maxX < 0) {
+            return;
+        }
+        bounds[index] = minX;
+        bounds[index + 1] = minY;
+        bounds[index + 2] = maxX - minX + 1;
+        bounds[index + 3] = maxY - minY + 1;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public int getEntry(int handle, boolean facingRight) {
+        return facingRight ? handle : HANDLE_COUNT + handle;
+    }
+
+    public boolean hasFrame(int entry) {
+        return rects[entry * 4 + 2] > 0;
+    }
+
+    public int getX(int entry) { return rects[entry * 4]; }
+    public int getY(int entry) { return rects[entry * 4 + 1]; }
+    public int getWidth(int entry) { return rects[entry * 4 + 2]; }
+    public int getHeight(int entry) { return rects[entry * 4 + 3]; }
+    public int getOffsetX(int entry) { return offsets[entry * 2]; }
+    public int getOffsetY(int entry) { return offsets[entry * 2 + 1]; }
+}
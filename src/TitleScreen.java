@@ -13,10 +13,12 @@ public class TitleScreen extends JPanel implements KeyListener, MouseListener {
     private float alpha = 1.0f;
     private boolean fadingOut = false;
     private AnimationManager animationManager;
+    private final TextLabel titleLabel = new TextLabel("Fanmade by Hex", Font.BOLD, 60, Color.WHITE);
     
     public TitleScreen(Game game) {
         this.game = game;
         this.animationManager = new AnimationManager();
+        animationManager.load(Animation.FOG);
         this.startTime = System.currentTimeMillis();
         setPreferredSize(GameSettings.WINDOW_SIZE);
         setFocusable(true);
@@ -49,31 +51,26 @@ public class TitleScreen extends JPanel implements KeyListener, MouseListener {
                 alpha = 1.0f - (float)fadeElapsed / 1000.0f;
             } else {
                 showing = false;
+                animationManager.release();
                 game.showMainMenu();
                 return;
             }
         }
         
         Graphics2D g2d = (Graphics2D) g;
-        g2d.setFont(new Font("Arial", Font.BOLD, 60));
-        FontMetrics fm = g2d.getFontMetrics();
         
-        String title = "Fanmade by Hex";
         int centerX = getWidth() +500;
         int centerY = getHeight() +300;
-        int x = centerX - fm.stringWidth(title) / 2;
+        int x = centerX - titleLabel.getWidth() / 2;
         int y = centerY;
         
-        g2d.setColor(new Color(1.0f, 1.0f, 1.0f, alpha));
-        g2d.drawString(title, x, y);
+        titleLabel.draw(g2d, x, y, alpha);
         
-        BufferedImage fogFrame = animationManager.getCurrentFogFrame();
+        BufferedImage fogFrame = animationManager.getScaledFrame(Animation.FOG, animationManager.getFogFrame(), 2.0, true);
         if (fogFrame != null) {
-            int fogX = x + fm.stringWidth(title) + 20;
-            int fogY = y - fogFrame.getHeight() / 2;
-            int fogWidth = fogFrame.getWidth() * 2;
-            int fogHeight = fogFrame.getHeight() * 2;
-            g2d.drawImage(fogFrame, fogX, fogY, fogWidth, fogHeight, null);
+            int fogX = x + titleLabel.getWidth() + 20;
+            int fogY = y - Animation.FOG.getFrameHeight() / 2;
+            g2d.drawImage(fogFrame, fogX, fogY, null);
         }
         
         repaint();
@@ -95,6 +92,7 @@ public class TitleScreen extends JPanel implements KeyListener, MouseListener {
     
     private void skipToMainMenu() {
         showing = false;
+        animationManager.release();
         game.showMainMenu();
     }
     
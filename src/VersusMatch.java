@@ -0,0 +1,84 @@
+public class VersusMatch {
+
+    public static final int PLAYERS = 2;
+
+    private static final long ATTACK_RANGE_SQUARED = (long) GameSettings.ATTACK_RANGE * GameSettings.ATTACK_RANGE;
+
+    private final Player[] players = new Player[PLAYERS];
+    private final PlayerController[] controllers = new PlayerController[PLAYERS];
+    private final int[] health = new int[PLAYERS];
+
+    private long tickCount = 0;
+    private long now = 0;
+    private int winner = -1;
+
+    public VersusMatch(SoundEvents sounds) {
+        int startX = GameSettings.WINDOW_WIDTH - GameSettings.PLAYER_START_X
+                - (int) (Animation.IDLE.getFrameWidth() * GameSettings.PLAYER_SCALE);
+        players[0] = new Player(sounds);
+        players[1] = new Player(sounds, startX, false);
+        for (int i = 0; i < PLAYERS; i++) {
+            controllers[i] = new PlayerController(players[i]);
+            health[i] = GameSettings.VERSUS_HEALTH;
+        }
+    }
+
+    public void tick(int input0, int input1) {
+        tickCount++;
+        now = tickCount * GameSettings.TICK_NANOS / 1000000;
+
+        if (winner < 0) {
+            controllers[0].setInput(input0, now);
+            controllers[1].setInput(input1, now);
+        }
+        for (PlayerController controller : controllers) {
+            controller.update(now);
+        }
+        if (winner < 0) {
+            applyHit(0, 1);
+            applyHit(1, 0);
+            if (health[0] <= 0 || health[1] <= 0) {
+                winner = health[0] > health[1] ? 0 : health[1] > health[0] ? 1 : PLAYERS;
+            }
+        }
+    }
+
+    private void applyHit(int attacker, int defender) {
+        Player a = players[attacker];
+        Player d = players[defender];
+        if (!a.isShowRasengan() || d.isJumping()) {
+            return;
+        }
+        long dx = d.getCenterX() - a.getCenterX();
+        long dy = d.getCenterY() - a.getCenterY();
+        if ((dx >= 0) == a.isFacingRight() && dx * dx + dy * dy < ATTACK_RANGE_SQUARED) {
+            health[defender] = Math.max(0, health[defender] - GameSettings.DAMAGE_PER_FRAME);
+        }
+    }
+
+    public void copyFrom(VersusMatch other) {
+        for (int i = 0; i < PLAYERS; i++) {
+            controllers[i].copyFrom(other.controllers[i]);
+            health[i] = other.health[i];
+        }
+        tickCount = other.tickCount;
+        now = other.now;
+        winner = other.winner;
+    }
+
+    public long getStateHash() {
+        long hash = tickCount;
+        hash = hash * 31 + winner;
+        for (int i = 0; i < PLAYERS; i++) {
+            hash = hash * 31 + health[i];
+            hash = hash * 31 + players[i].getStateHash();
+        }
+        return hash;
+    }
+
+    public Player getPlayer(int index) { return players[index]; }
+    public int getHealth(int index) { return health[index]; }
+    public int getWinner() { return winner; }
+    public long getTime() { return now; }
+    public long getTickCount() { return tickCount; }
+}
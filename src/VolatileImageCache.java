@@ -0,0 +1,62 @@
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class VolatileImageCache {
+
+    private final Map<BufferedImage, VolatileImage> images = new IdentityHashMap<>();
+
+    public VolatileImage get(BufferedImage source, GraphicsConfiguration configuration) {
+        VolatileImage image = images.get(source);
+        if (image == null) {
+            image = create(source, configuration);
+            images.put(source, image);
+            return image;
+        }
+
+        int status = image.validate(configuration);
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            image.flush();
+            image = create(source, configuration);
+            images.put(source, image);
+        } else if (status == VolatileImage.IMAGE_RESTORED) {
+            restore(image, source);
+        }
+        return image;
+    }
+
+    public void evict(BufferedImage source) {
+        VolatileImage image = images.remove(source);
+        if (image != null) {
+            image.flush();
+        }
+    }
+
+    public void flush() {
+        for (VolatileImage image : images.values()) {
+            image.flush();
+        }
+        images.clear();
+    }
+
+    private VolatileImage create(BufferedImage source, GraphicsConfiguration configuration) {
+        VolatileImage image = configuration.createCompatibleVolatileImage(
+                source.getWidth(), source.getHeight(), source.getTransparency());
+        restore(image, source);
+        return image;
+    }
+
+    private void restore(VolatileImage image, BufferedImage source) {
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setComposite(AlphaComposite.Src);
+            g2d.drawImage(source, 0, 0, null);
+        } finally {
+            g2d.dispose();
+        }
+    }
+}